@@ -0,0 +1,104 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Default-package side of benchmarks.Harness: has package access to the solver classes
+public class BenchmarkHarness implements benchmarks.Harness {
+    // {initial rows..., goal rows...} per corpus instance
+    private static final String[][] CORPUS = {
+            {"R,B,G", "_,R,_", "B,G,X", "G,R,B", "_,B,_", "R,G,X"},
+            {"R,G,B", "B,X,_", "R,G,_", "_,B,R", "G,X,B", "_,G,R"},
+            {"B,_,G", "R,X,_", "B,R,G", "_,B,R", "G,X,B", "_,G,R"},
+            {"G,_,B,G", "R,R,_,_", "B,B,_,_", "R,_,_,G", "R,B,_,R", "G,_,_,_", "G,R,B,_", "G,B,_,_"},
+    };
+
+    private BoardState initialState;
+    private BoardState goalState;
+    private BoardState copy;
+    private AStarSearch algorithm;              // Gives access to the SearchAlgorithm helpers
+    private SearchAlgorithm.SearchNode root;
+    private long expanded;                      // By the last search
+
+    // A* on the previous binary heap open list
+    private static class HeapAStar extends AStarSearch {
+        HeapAStar(BoardState initialState, BoardState goalState) {
+            super(initialState, goalState, false, false);
+        }
+
+        @Override
+        protected OpenList<SearchNode> createOpenList() {
+            return new HeapOpenList<>(Comparator.comparingInt(SearchNode::getTotalCost));
+        }
+    }
+
+    @Override
+    public void load(String instance) {
+        int index = Arrays.asList(INSTANCES).indexOf(instance);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown corpus instance: " + instance);
+        }
+        List<String> rows = Arrays.asList(CORPUS[index]);
+        int size = rows.size() / 2;
+        initialState = new BoardState(rows.subList(0, size));
+        goalState = new BoardState(rows.subList(size, rows.size()));
+        copy = new BoardState(initialState);
+        algorithm = new AStarSearch(initialState, goalState, false, false);
+        root = algorithm.new SearchNode(initialState, null, 0, SearchAlgorithm.NO_MOVE);
+    }
+
+    @Override
+    public int heuristic() {
+        return algorithm.heuristic(initialState);
+    }
+
+    @Override
+    public int successors() {
+        return algorithm.generateSuccessors(root).size();
+    }
+
+    @Override
+    public int sortedSuccessors() {
+        root.getSuccessorsStates();
+        return root.successors.size();
+    }
+
+    @Override
+    public Object copyBoard() {
+        return new BoardState(initialState);
+    }
+
+    @Override
+    public boolean boardsEqual() {
+        return initialState.equals(copy);
+    }
+
+    @Override
+    public int boardHash() {
+        return initialState.hashCode();
+    }
+
+    @Override
+    public double search(String algorithmName) {
+        SearchParameters params = new SearchParameters(algorithmName, initialState, goalState, false, false);
+        return solve(Ex1.selectSearchAlgorithm(params));
+    }
+
+    @Override
+    public double aStar(boolean heapOpenList) {
+        AStarSearch search = heapOpenList
+                ? new HeapAStar(initialState, goalState)
+                : new AStarSearch(initialState, goalState, false, false);
+        return solve(search);
+    }
+
+    @Override
+    public long expanded() {
+        return expanded;
+    }
+
+    private double solve(SearchAlgorithm search) {
+        SearchResult result = search.search();
+        expanded = result.metrics.expanded;
+        return result.cost;
+    }
+}
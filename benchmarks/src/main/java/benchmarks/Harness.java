@@ -0,0 +1,50 @@
+package benchmarks;
+
+// Operations the benchmarks measure. The solver lives in the default package, which named packages
+// (and so JMH's generated code) cannot import; BenchmarkHarness implements this interface from the
+// default package and is loaded by name, after which every call is a plain interface call.
+public interface Harness {
+    // Corpus instances: solution cost 26 (6 moves), 30 (8 moves) and 45 (10 moves) on 3x3 boards, and
+    // cost 59 on a 4x4 board with 9 balls, where A* expands about 33,000 nodes
+    String[] INSTANCES = {"easy", "medium", "hard", "large"};
+
+    static Harness create(String instance) {
+        try {
+            Harness harness = (Harness) Class.forName("BenchmarkHarness").getDeclaredConstructor().newInstance();
+            harness.load(instance);
+            return harness;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkHarness is missing from the class path", e);
+        }
+    }
+
+    // Select the corpus instance the other operations work on
+    void load(String instance);
+
+    // heuristic() of the initial state
+    int heuristic();
+
+    // generateSuccessors() of the initial node; returns the successor count
+    int successors();
+
+    // SearchNode.getSuccessorsStates() (successors sorted by f); returns the successor count
+    int sortedSuccessors();
+
+    // BoardState copy constructor on the initial state
+    Object copyBoard();
+
+    // equals() between the initial state and an equal copy
+    boolean boardsEqual();
+
+    // hashCode() of the initial state
+    int boardHash();
+
+    // End-to-end search() with the algorithm named as in input.txt; returns the solution cost
+    double search(String algorithm);
+
+    // A* with the binary heap or the bucket open list; returns the solution cost
+    double aStar(boolean heapOpenList);
+
+    // Nodes expanded by the last search() or aStar()
+    long expanded();
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Per-node work of the best-first engines: heuristic evaluation and successor generation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeBenchmark {
+    @Param({"easy", "medium", "hard"})
+    public String instance;
+
+    private Harness harness;
+
+    @Setup
+    public void setUp() {
+        harness = Harness.create(instance);
+    }
+
+    @Benchmark
+    public int heuristic() {
+        return harness.heuristic();
+    }
+
+    @Benchmark
+    public int generateSuccessors() {
+        return harness.successors();
+    }
+
+    @Benchmark
+    public int getSuccessorsStates() {
+        return harness.sortedSuccessors();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A* with the bucket open list against the previous binary heap. Besides searches per second, the
+// "expansions" counter reports expanded nodes per second, which compares across instances.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenListBenchmark {
+    @Param({"heap", "bucket"})
+    public String openList;
+
+    @Param({"easy", "medium", "hard", "large"})
+    public String instance;
+
+    private Harness harness;
+
+    // Nodes expanded by the measured searches, reported as a rate next to the score
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long expansions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            expansions = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        harness = Harness.create(instance);
+    }
+
+    @Benchmark
+    public double aStar(Counters counters) {
+        double cost = harness.aStar(openList.equals("heap"));
+        counters.expansions += harness.expanded();
+        return cost;
+    }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// End-to-end search() over the fixed corpus, one solve per invocation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"BFS", "DFID", "A*", "IDA*", "DFBnB"})
+    public String algorithm;
+
+    @Param({"easy", "medium", "hard"})
+    public String instance;
+
+    private Harness harness;
+
+    @Setup
+    public void setUp() {
+        harness = Harness.create(instance);
+    }
+
+    @Benchmark
+    public double search() {
+        return harness.search(algorithm);
+    }
+}
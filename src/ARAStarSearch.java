@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Anytime repairing A* (ARA*, Likhachev, Gordon & Thrun 2003). A series of weighted A* searches with
+// the weight lowered by -Dsearch.epsilon.step after each one, from -Dsearch.epsilon down to 1 or until
+// -Dsearch.anytime.ms runs out. Each search starts from where the previous one left off: nodes are
+// expanded at most once per search, and those that get a cheaper g after their expansion wait in an
+// inconsistent list for the next one instead of being reopened. With a consistent h, each completed
+// search proves the incumbent within its weight of the optimum.
+class ARAStarSearch extends WeightedAStarSearch {
+    private final double step;
+
+    public ARAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
+        this(initialState, goalState, printTime, printOpenList, SearchConfig.epsilon(), SearchConfig.epsilonStep(),
+                SearchConfig.anytimeMillis());
+    }
+
+    public ARAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList,
+                         double epsilon, double step, long timeBudgetMillis) {
+        super(initialState, goalState, printTime, printOpenList, epsilon, timeBudgetMillis);
+        this.step = step;
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        startTime = System.currentTimeMillis();
+        weight = epsilon;
+        incumbent = null;
+        OpenList<SearchNode> openList = createOpenList();
+        List<SearchNode> inconsistent = new ArrayList<>();
+        PackedStateMap bestCosts = new PackedStateMap();
+        PackedStateMap closed = new PackedStateMap(); // Expanded in the current search
+
+        SearchNode startNode = new SearchNode(initialState, null, 0, NO_MOVE);
+        bestCosts.putIfLower(initialState, 0);
+        if (initialState.isGoalState(goalState)) {
+            incumbent = startNode;
+            return result(1, 1);
+        }
+        openList.add(startNode, priority(startNode), 0);
+
+        double bound = Double.NaN;
+        double provenWeight = Double.POSITIVE_INFINITY;  // Weight of the last completed search
+        while (true) {
+            boolean completed = improvePath(openList, inconsistent, bestCosts, closed,
+                    provenWeight < Double.POSITIVE_INFINITY);
+            if (incumbent == null) {
+                break; // Nothing left to expand: there is no path
+            }
+            if (completed) {
+                provenWeight = weight;
+            }
+            bound = provenBound(provenWeight, openList, inconsistent);
+            reportBound(bound);
+            if (!completed || bound <= 1 || outOfTime()) {
+                break;
+            }
+
+            // Next search: lower weight, every open or inconsistent node that can still lead to a
+            // cheaper solution, reordered, and nothing expanded yet
+            weight = Math.max(1, weight - step);
+            OpenList<SearchNode> next = createOpenList();
+            addFresh(next, openList, bestCosts);
+            addFresh(next, inconsistent, bestCosts);
+            openList = next;
+            inconsistent.clear();
+            closed = new PackedStateMap();
+        }
+        return result(bestCosts.size(), bound);
+    }
+
+    // One weighted A* search, until no open node can beat the incumbent under the current weight.
+    // Returns false if the time budget ran out first (only checked when interruptible).
+    private boolean improvePath(OpenList<SearchNode> openList, List<SearchNode> inconsistent,
+                                PackedStateMap bestCosts, PackedStateMap closed, boolean interruptible) {
+        while (!openList.isEmpty()) {
+            if (interruptible && outOfTime()) {
+                return false;
+            }
+            SearchNode currentNode = openList.poll();
+            if (currentNode.pathCost > bestCosts.get(currentNode.state)
+                    || closed.get(currentNode.state) != PackedStateMap.MISSING || !canImprove(currentNode)) {
+                continue;
+            }
+            if (incumbent != null && priority(currentNode) >= incumbent.pathCost) {
+                openList.add(currentNode, priority(currentNode), currentNode.pathCost);
+                return true;
+            }
+            closed.putIfLower(currentNode.state, 0);
+
+            for (SearchNode successor : generateSuccessors(currentNode)) {
+                if (!canImprove(successor) || !bestCosts.putIfLower(successor.state, successor.pathCost)) {
+                    metrics.duplicatesPruned++;
+                    continue;
+                }
+                if (successor.state.isGoalState(goalState)) {
+                    // The goal is never expanded: its g is the solution cost
+                    incumbent = successor;
+                    reportSolution();
+                } else if (closed.get(successor.state) != PackedStateMap.MISSING) {
+                    inconsistent.add(successor);
+                } else {
+                    openList.add(successor, priority(successor), successor.pathCost);
+                }
+            }
+            metrics.openSize(openList.size() + inconsistent.size());
+
+            if (listener != null) {
+                listener.openListChanged(null, openList);
+            }
+        }
+        return true;
+    }
+
+    // Add the nodes that still hold their state's best g and can beat the incumbent
+    private void addFresh(OpenList<SearchNode> target, Iterable<SearchNode> nodes, PackedStateMap bestCosts) {
+        for (SearchNode node : nodes) {
+            if (node.pathCost == bestCosts.get(node.state) && canImprove(node)) {
+                target.add(node, priority(node), node.pathCost);
+            }
+        }
+    }
+}
@@ -8,19 +8,19 @@ class AStarSearch extends SearchAlgorithm {
     }
 
     @Override
-    public SearchResult search() {
+    protected SearchResult runSearch() {
         long startTime = System.currentTimeMillis();
 
-        // Priority queue for open list (f(n) = g(n) + h(n))
-        PriorityQueue<SearchNode> openList = new PriorityQueue<>(Comparator.comparingInt(SearchNode::getTotalCost));
+        // Open list ordered by f(n) = g(n) + h(n), ties broken towards deeper nodes
+        OpenList<SearchNode> openList = createOpenList();
 
-        // Map to store the best nodes for each state
-        Map<BoardState, SearchNode> bestNodes = new HashMap<>();
+        // Best known g for each packed state (open-addressing, no boxing)
+        PackedStateMap bestCosts = new PackedStateMap();
 
         // Initialize the start node
-        SearchNode startNode = new SearchNode(initialState, null, 0, "");
-        openList.add(startNode);
-        bestNodes.put(initialState, startNode);
+        SearchNode startNode = new SearchNode(initialState, null, 0, NO_MOVE);
+        openList.add(startNode, priority(startNode), 0);
+        bestCosts.putIfLower(initialState, 0);
 
         while (!openList.isEmpty()) {
             // Get the node with the lowest total cost
@@ -30,42 +30,49 @@ class AStarSearch extends SearchAlgorithm {
             if (currentNode.state.isGoalState(goalState)) {
                 long endTime = System.currentTimeMillis();
                 double totalTime = (endTime - startTime) / 1000.0;
-                return new SearchResult(reconstructPath(currentNode), bestNodes.size(), currentNode.pathCost, totalTime);
+                SearchResult result = new SearchResult(reconstructPath(currentNode), bestCosts.size(),
+                        currentNode.pathCost, totalTime);
+                result.suboptimalityBound = 1;
+                return result;
             }
 
             // If the current node is no longer optimal, skip it
-            if (currentNode.getTotalCost() > bestNodes.get(currentNode.state).getTotalCost()) {
+            if (currentNode.pathCost > bestCosts.get(currentNode.state)) {
                 continue;
             }
 
-            // Generate successors dynamically
-            currentNode.getSuccessorsStates();
+            // Generate successors dynamically (the open list orders them, no need to sort)
+            List<SearchNode> successors = generateSuccessors(currentNode);
 
             // Process each successor
-            for (SearchNode successor : currentNode.successors) {
-                int newPathCost = currentNode.pathCost + calculateMoveCost(currentNode, successor);
-
-                // If the successor is not optimal, skip it
-                if (bestNodes.containsKey(successor.state) && bestNodes.get(successor.state).getTotalCost() <= successor.getTotalCost()) {
+            for (SearchNode successor : successors) {
+                // Single probe: records the cost if it is new or cheaper, otherwise skip the successor
+                if (!bestCosts.putIfLower(successor.state, successor.pathCost)) {
+                    metrics.duplicatesPruned++;
                     continue;
                 }
-                // Update best known node and add to the open list
-                bestNodes.put(successor.state, successor);
-                openList.add(successor);
+                openList.add(successor, priority(successor), successor.pathCost);
             }
+            metrics.openSize(openList.size());
 
-            // Print the open list if required
-            if (printOpenList) {
-                System.out.println("Open List Contents:");
-                for (SearchNode node : openList) {
-                    System.out.println(node);
-                }
+            if (listener != null) {
+                listener.openListChanged(null, openList);
             }
         }
 
         // No path found
         long endTime = System.currentTimeMillis();
         double totalTime = (endTime - startTime) / 1000.0;
-        return new SearchResult("No Path", bestNodes.size(), Integer.MAX_VALUE, totalTime);
+        return new SearchResult("No Path", bestCosts.size(), Integer.MAX_VALUE, totalTime);
+    }
+
+    // Open list key of a node: f = g + h here; the weighted variants inflate h
+    protected int priority(SearchNode node) {
+        return node.getTotalCost();
+    }
+
+    // Costs are small integers, so a bucket queue gives O(1) push/pop; subclasses may swap it out
+    protected OpenList<SearchNode> createOpenList() {
+        return new BucketOpenList<>();
     }
 }
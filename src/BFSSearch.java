@@ -6,30 +6,29 @@ class BFSSearch extends SearchAlgorithm {
     }
 
     @Override
-    public SearchResult search() {
+    protected SearchResult runSearch() {
         long startTime = System.currentTimeMillis();
         int nodesCreated = 1; // Count initial state
 
-        // Use HashSet for closed list to check visited states efficiently
-        Set<String> closedList = new HashSet<>();
+        // Use HashSet for closed list to check visited states efficiently (keyed on the packed board)
+        Set<BoardState> closedList = new HashSet<>();
 
         // Use Queue and HashSet for BFS
         Queue<SearchNode> openList = new LinkedList<>();
-        Set<String> openListSet = new HashSet<>(); // Tracks states in openList
+        Set<BoardState> openListSet = new HashSet<>(); // Tracks states in openList
 
         // Create initial search node
-        SearchNode initialNode = new SearchNode(initialState, null, 0, "");
+        SearchNode initialNode = new SearchNode(initialState, null, 0, NO_MOVE);
         openList.add(initialNode);
-        openListSet.add(boardToString(initialState));
+        openListSet.add(initialState);
 
-        // Optional: Print initial open list if required
-        if (printOpenList) {
-            printOpenListContents(openList);
+        if (listener != null) {
+            listener.openListChanged(null, openList);
         }
 
         while (!openList.isEmpty()) {
             SearchNode currentNode = openList.poll();
-            String boardKey = boardToString(currentNode.state);
+            BoardState boardKey = currentNode.state;
             openListSet.remove(boardKey);
             nodesCreated++;
 
@@ -56,19 +55,20 @@ class BFSSearch extends SearchAlgorithm {
             List<SearchNode> successors = generateSuccessors(currentNode);
 
             for (SearchNode successor : successors) {
-                String successorKey = boardToString(successor.state);
+                BoardState successorKey = successor.state;
 
                 // Only add to open list if not in closed list or open list
                 if (!closedList.contains(successorKey) && !openListSet.contains(successorKey)) {
                     openList.add(successor);
                     openListSet.add(successorKey);
-
+                } else {
+                    metrics.duplicatesPruned++;
                 }
             }
+            metrics.openSize(openList.size());
 
-            // Optional: Print open list if required
-            if (printOpenList) {
-                printOpenListContents(openList);
+            if (listener != null) {
+                listener.openListChanged(null, openList);
             }
         }
 
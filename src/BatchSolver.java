@@ -0,0 +1,165 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+// Solves many problems in one JVM, so start-up and JIT warm-up are paid once:
+//   java Ex1 --batch <directory or multi-problem file> [output file]
+// A directory holds one problem per file (input.txt format), taken in file name order. A multi-problem
+// file holds several problems separated by lines containing only "---".
+//
+// Files are read on virtual threads and searches run on a fixed pool of -Dsearch.batch.threads
+// workers. Results are written in input order as soon as each one and all before it are done, each
+// with its search time and wall time. Open list printing is ignored in batch mode.
+class BatchSolver {
+    private static final String SEPARATOR = "---";
+
+    // One problem: a display name and a way to read its text
+    private static final class Instance {
+        final String name;
+        final Path file;    // Read on demand (directory mode)
+        final String text;  // Already in memory (multi-problem file)
+
+        Instance(String name, Path file, String text) {
+            this.name = name;
+            this.file = file;
+            this.text = text;
+        }
+
+        String read() {
+            if (text != null) {
+                return text;
+            }
+            try {
+                return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java Ex1 --batch <directory or multi-problem file> [output file]");
+            return;
+        }
+        try {
+            List<Instance> instances = instances(Paths.get(args[1]));
+            if (args.length == 3) {
+                try (Writer out = Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+                    run(instances, out);
+                }
+            } else {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                run(instances, out);
+            }
+        } catch (IOException e) {
+            System.err.println("Error processing batch: " + e.getMessage());
+        }
+    }
+
+    private static List<Instance> instances(Path input) throws IOException {
+        List<Instance> instances = new ArrayList<>();
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> files = Files.list(input)) {
+                files.filter(Files::isRegularFile)
+                        .sorted()
+                        .forEach(file -> instances.add(new Instance(file.getFileName().toString(), file, null)));
+            }
+            return instances;
+        }
+
+        StringBuilder problem = new StringBuilder();
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            if (line.trim().equals(SEPARATOR)) {
+                addProblem(instances, input, problem);
+            } else {
+                problem.append(line).append('\n');
+            }
+        }
+        addProblem(instances, input, problem);
+        return instances;
+    }
+
+    private static void addProblem(List<Instance> instances, Path input, StringBuilder problem) {
+        if (!problem.toString().trim().isEmpty()) {
+            instances.add(new Instance(input.getFileName() + "#" + (instances.size() + 1), null, problem.toString()));
+        }
+        problem.setLength(0);
+    }
+
+    // Solve every instance, keeping at most two per worker in flight, and stream the results in order
+    private static void run(List<Instance> instances, Writer out) throws IOException {
+        int threads = SearchConfig.batchThreads();
+        long startTime = System.currentTimeMillis();
+        ExecutorService searchPool = Executors.newFixedThreadPool(threads);
+        ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < instances.size() || !inFlight.isEmpty()) {
+                while (next < instances.size() && inFlight.size() < 2 * threads) {
+                    Instance instance = instances.get(next++);
+                    inFlight.add(CompletableFuture
+                            .supplyAsync(instance::read, readers)
+                            .thenApplyAsync(text -> solve(instance.name, text), searchPool)
+                            .exceptionally(e -> report(instance.name, "error: " + rootCause(e).getMessage())));
+                }
+                out.write(inFlight.poll().join());
+                out.flush();
+            }
+        } finally {
+            searchPool.shutdownNow();
+            readers.shutdownNow();
+        }
+        System.err.println("Solved " + instances.size() + " instances in "
+                + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds");
+    }
+
+    private static String solve(String name, String text) {
+        long start = System.nanoTime();
+        SearchParameters params;
+        try {
+            params = Ex1.parseProblem(new BufferedReader(new StringReader(text)));
+        } catch (IllegalArgumentException | IOException e) {
+            return report(name, Ex1.formatResult("no solution", 0, 0, 0, true), start);
+        }
+        params.printOpenList = false;
+        SearchResult result = Ex1.solve(params, false);
+        return report(name, Ex1.formatResult(result.solution, result.nodesCreated, result.cost, result.runtime, true),
+                start);
+    }
+
+    // Wall time covers parsing, validation and the search itself
+    private static String report(String name, String body, long start) {
+        double wallTime = (System.nanoTime() - start) / 1e9;
+        return report(name, body + System.lineSeparator() + "wall time: " + wallTime);
+    }
+
+    private static String report(String name, String body) {
+        String separator = System.lineSeparator();
+        return "=== " + name + " ===" + separator + body + separator;
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.*;
+
+// Front-to-front bidirectional BFS: one frontier grows from the initial state and one from the goal
+// (every move can be undone at the same cost), always expanding the smaller frontier by a full layer.
+// The first state generated by one side that the other side has already reached joins the two halves.
+class BidirectionalBFSSearch extends SearchAlgorithm {
+    public BidirectionalBFSSearch(BoardState initialState, BoardState goalState,
+                                  boolean printTime, boolean printOpenList) {
+        super(initialState, goalState, printTime, printOpenList);
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        long startTime = System.currentTimeMillis();
+
+        // States reached by each side, with the node that first reached them
+        Map<BoardState, SearchNode> forwardReached = new HashMap<>();
+        Map<BoardState, SearchNode> backwardReached = new HashMap<>();
+
+        SearchNode forwardRoot = new SearchNode(initialState, null, 0, NO_MOVE);
+        SearchNode backwardRoot = new SearchNode(goalState, null, 0, NO_MOVE, 0);
+        forwardReached.put(initialState, forwardRoot);
+        backwardReached.put(goalState, backwardRoot);
+
+        List<SearchNode> forwardFrontier = new ArrayList<>(List.of(forwardRoot));
+        List<SearchNode> backwardFrontier = new ArrayList<>(List.of(backwardRoot));
+
+        SearchNode forwardMeet = initialState.isGoalState(goalState) ? forwardRoot : null;
+        SearchNode backwardMeet = forwardMeet != null ? backwardRoot : null;
+
+        while (forwardMeet == null && !forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            boolean forward = forwardFrontier.size() <= backwardFrontier.size();
+            List<SearchNode> frontier = forward ? forwardFrontier : backwardFrontier;
+            Map<BoardState, SearchNode> own = forward ? forwardReached : backwardReached;
+            Map<BoardState, SearchNode> other = forward ? backwardReached : forwardReached;
+
+            metrics.openSize(forwardFrontier.size() + backwardFrontier.size());
+            if (listener != null) {
+                listener.openListChanged(forward ? "forward" : "backward", frontier);
+            }
+
+            List<SearchNode> nextFrontier = new ArrayList<>();
+            expansion:
+            for (SearchNode node : frontier) {
+                for (SearchNode successor : generateSuccessors(node)) {
+                    if (own.containsKey(successor.state)) {
+                        metrics.duplicatesPruned++;
+                        continue;
+                    }
+                    own.put(successor.state, successor);
+
+                    // Every meeting found in this layer has the same depth, so the first one is shortest
+                    SearchNode meet = other.get(successor.state);
+                    if (meet != null) {
+                        forwardMeet = forward ? successor : meet;
+                        backwardMeet = forward ? meet : successor;
+                        break expansion;
+                    }
+                    nextFrontier.add(successor);
+                }
+            }
+
+            if (forward) {
+                forwardFrontier = nextFrontier;
+            } else {
+                backwardFrontier = nextFrontier;
+            }
+        }
+
+        long endTime = System.currentTimeMillis();
+        int nodesCreated = forwardReached.size() + backwardReached.size();
+        if (forwardMeet == null) {
+            return new SearchResult("no path", nodesCreated, Double.POSITIVE_INFINITY, (endTime - startTime) / 1000.0);
+        }
+        return new SearchResult(
+                reconstructBidirectionalPath(forwardMeet, backwardMeet),
+                nodesCreated,
+                forwardMeet.pathCost + backwardMeet.pathCost,
+                (endTime - startTime) / 1000.0
+        );
+    }
+}
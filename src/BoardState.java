@@ -1,76 +1,280 @@
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
 
-// Board state representation
+// Board state representation, packed by a StateCodec into a few bits per free cell
 class BoardState {
-    char[][] board;
-    int rows = 3;
-    int cols = 3;
-    int trackEmptyRow; // Track the empty tile row
-    int trackEmptyCol; // Track the empty tile column
+    // Cell codes used by the packed encoding
+    static final int EMPTY = 0;
+    static final int RED = 1;
+    static final int GREEN = 2;
+    static final int BLUE = 3;
+    static final int YELLOW = 4;
+    static final int ORANGE = 5;
+    static final int PURPLE = 6;
+    static final int BLOCKED = 7; // Never stored: blocked cells are part of the codec
+    static final int CODES = 8;
+
+    private static final char[] CODE_TO_CHAR = {'_', 'R', 'G', 'B', 'Y', 'O', 'P', 'X'};
 
-    // Constructor to initialize board from input
+    final StateCodec codec;
+    int rows;
+    int cols;
+    long low;      // ONE_LONG and TWO_LONGS layouts
+    long high;     // TWO_LONGS layout
+    byte[] bytes;  // BYTES layout (null otherwise)
+
+    // Constructor to initialize board from input; dimensions come from the rows given
     public BoardState(List<String> boardInput) {
-        board = new char[rows][cols];
+        this(parseRows(boardInput));
+    }
+
+    // Copy constructor (a packed board is a handful of words, so this is cheap)
+    public BoardState(BoardState original) {
+        this.codec = original.codec;
+        this.rows = original.rows;
+        this.cols = original.cols;
+        this.low = original.low;
+        this.high = original.high;
+        this.bytes = original.bytes == null ? null : original.bytes.clone();
+    }
+
+    // Constructor to initialize the board
+    public BoardState(char[][] board) {
+        this.rows = board.length;
+        this.cols = board[0].length;
+        boolean[] blocked = new boolean[rows * cols];
+        int maxCode = 0;
         for (int i = 0; i < rows; i++) {
-            String[] rowValues = boardInput.get(i).split(",");
+            if (board[i].length != cols) {
+                throw new IllegalArgumentException("Row " + (i + 1) + " has " + board[i].length + " cells, expected " + cols);
+            }
             for (int j = 0; j < cols; j++) {
-                board[i][j] = rowValues[j].charAt(0);
-                if (board[i][j] == '_') {
-                    trackEmptyRow = i; // Store row index of empty tile
-                    trackEmptyCol = j; // Store column index of empty tile
+                int code = codeOf(board[i][j]);
+                blocked[i * cols + j] = code == BLOCKED;
+                if (code != BLOCKED) {
+                    maxCode = Math.max(maxCode, code);
                 }
             }
         }
-    }
-
-    // Deep copy constructor
-    public BoardState(BoardState original) {
-        this.board = new char[rows][cols];
+        this.codec = StateCodec.forLayout(rows, cols, blocked, maxCode);
+        if (codec.layout == StateCodec.Layout.BYTES) {
+            bytes = new byte[codec.byteCount];
+        }
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                this.board[i][j] = original.board[i][j];
+                int cell = i * cols + j;
+                if (!codec.isBlocked(cell)) {
+                    setCode(cell, codeOf(board[i][j]));
+                }
             }
         }
-        this.trackEmptyRow = original.trackEmptyRow;
-        this.trackEmptyCol = original.trackEmptyCol;
     }
 
-    // Constructor to initialize the board
-    public BoardState(char[][] board) {
-        // Deep copy the board to ensure immutability
-        this.board = new char[board.length][];
-        for (int i = 0; i < board.length; i++) {
-            this.board[i] = Arrays.copyOf(board[i], board[i].length);
+    private static char[][] parseRows(List<String> boardInput) {
+        List<char[]> rows = new ArrayList<>();
+        for (String line : boardInput) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] rowValues = line.trim().split(",");
+            char[] row = new char[rowValues.length];
+            for (int j = 0; j < rowValues.length; j++) {
+                String value = rowValues[j].trim();
+                if (value.length() != 1) {
+                    throw new IllegalArgumentException("Invalid board cell: \"" + value + "\"");
+                }
+                row[j] = value.charAt(0);
+            }
+            rows.add(row);
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Empty board");
         }
+        return rows.toArray(new char[0][]);
     }
 
+    static int codeOf(char cell) {
+        switch (cell) {
+            case '_': return EMPTY;
+            case 'R': return RED;
+            case 'G': return GREEN;
+            case 'B': return BLUE;
+            case 'Y': return YELLOW;
+            case 'O': return ORANGE;
+            case 'P': return PURPLE;
+            case 'X': return BLOCKED;
+            default: throw new IllegalArgumentException("Invalid board cell: " + cell);
+        }
+    }
 
-    // Method to check if current state matches goal state
-    public boolean isGoalState(BoardState goalState) {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                if (this.board[i][j] != goalState.board[i][j]) {
-                    return false;
+    static char charOf(int code) {
+        return CODE_TO_CHAR[code];
+    }
+
+    // Code of the cell at the given flat index (row * cols + col)
+    int codeAt(int cell) {
+        int position = codec.positions[cell];
+        if (position < 0) {
+            return BLOCKED;
+        }
+        int bits = codec.bitsPerCell;
+        switch (codec.layout) {
+            case ONE_LONG:
+                return (int) (low >>> (position * bits)) & codec.cellMask;
+            case TWO_LONGS: {
+                int perLong = codec.cellsPerLong;
+                long word = position < perLong ? low : high;
+                return (int) (word >>> ((position % perLong) * bits)) & codec.cellMask;
+            }
+            default: {
+                int bit = position * bits;
+                return (bytes[bit >>> 3] >>> (bit & 7)) & codec.cellMask;
+            }
+        }
+    }
+
+    char cellAt(int row, int col) {
+        return CODE_TO_CHAR[codeAt(row * cols + col)];
+    }
+
+    private void setCode(int cell, int code) {
+        int position = codec.positions[cell];
+        int bits = codec.bitsPerCell;
+        switch (codec.layout) {
+            case ONE_LONG: {
+                int shift = position * bits;
+                low = (low & ~((long) codec.cellMask << shift)) | ((long) code << shift);
+                break;
+            }
+            case TWO_LONGS: {
+                int perLong = codec.cellsPerLong;
+                int shift = (position % perLong) * bits;
+                long mask = (long) codec.cellMask << shift;
+                if (position < perLong) {
+                    low = (low & ~mask) | ((long) code << shift);
+                } else {
+                    high = (high & ~mask) | ((long) code << shift);
                 }
+                break;
+            }
+            default: {
+                int bit = position * bits;
+                int shift = bit & 7;
+                bytes[bit >>> 3] = (byte) ((bytes[bit >>> 3] & ~(codec.cellMask << shift)) | (code << shift));
+            }
+        }
+    }
+
+    // Number of 64-bit words in the packed key (see keyWord)
+    int keyWords() {
+        return codec.keyWords();
+    }
+
+    // The packed encoding as 64-bit words, for primitive hash tables
+    long keyWord(int index) {
+        if (bytes == null) {
+            return index == 0 ? low : high;
+        }
+        long word = 0;
+        int end = Math.min(bytes.length, index * 8 + 8);
+        for (int i = end - 1; i >= index * 8; i--) {
+            word = (word << 8) | (bytes[i] & 0xFF);
+        }
+        return word;
+    }
+
+    // Overwrite this board with a packed key (the inverse of keyWord). The key must come from a
+    // board with the same codec.
+    void setKeyWords(long[] words, int base) {
+        if (bytes == null) {
+            low = words[base];
+            high = codec.layout == StateCodec.Layout.TWO_LONGS ? words[base + 1] : 0;
+            return;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[base + (i >>> 3)] >>> ((i & 7) * 8));
+        }
+    }
+
+    // Successor state with the ball at (fromRow, fromCol) slid into the empty cell at (toRow, toCol)
+    BoardState withMove(int fromRow, int fromCol, int toRow, int toCol) {
+        BoardState next = new BoardState(this);
+        next.applyMove(fromRow * cols + fromCol, toRow * cols + toCol);
+        return next;
+    }
+
+    // Slide the ball on cell 'from' into the empty cell 'to', in place. Applying (to, from) undoes it,
+    // so depth-first searches can walk the tree on a single board without copying.
+    void applyMove(int from, int to) {
+        setCode(to, codeAt(from));
+        setCode(from, EMPTY);
+    }
+
+    // Fields of key word w that are blank (all bits zero), as a mask of their lowest bits. Read
+    // straight from the packed words, so it is never out of step after applyMove or setKeyWords.
+    private long blankBits(int w) {
+        long word = keyWord(w);
+        long occupied = word;
+        for (int shift = 1; shift < codec.bitsPerCell; shift++) {
+            occupied |= word >>> shift;
+        }
+        return ~occupied & codec.fieldLowBits[w];
+    }
+
+    int blankCount() {
+        int count = 0;
+        for (int w = 0; w < codec.fieldLowBits.length; w++) {
+            count += Long.bitCount(blankBits(w));
+        }
+        return count;
+    }
+
+    // Write the empty cells to 'cells' in ascending order and return how many there are; the
+    // cost depends on the number of blanks and key words, not on the board area
+    int blankCells(int[] cells) {
+        int count = 0;
+        int bits = codec.bitsPerCell;
+        for (int w = 0; w < codec.fieldLowBits.length; w++) {
+            int base = w * codec.cellsPerLong;
+            for (long blank = blankBits(w); blank != 0; blank &= blank - 1) {
+                cells[count++] = codec.freeCells[base + Long.numberOfTrailingZeros(blank) / bits];
             }
         }
-        return true;
+        return count;
+    }
+
+    int[] blankCells() {
+        int[] cells = new int[blankCount()];
+        blankCells(cells);
+        return cells;
+    }
+
+    // Method to check if current state matches goal state
+    public boolean isGoalState(BoardState goalState) {
+        return equals(goalState);
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("Board State:\n");
-        for (char[] row : board) {
-            for (char cell : row) {
-                sb.append(cell).append(" ");
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                sb.append(cellAt(i, j)).append(" ");
             }
             sb.append("\n");
         }
         return sb.toString();
     }
 
+    @Override
+    public int hashCode() {
+        long h = bytes == null ? low * 31 + high : Arrays.hashCode(bytes);
+        // Mix the bits: packed boards differ only in a few low-order positions
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
     @Override
     public boolean equals(Object obj) {
         // Check if comparing the object to itself
@@ -83,15 +287,10 @@ class BoardState {
             return false;
         }
 
-        // Cast the other object to BoardState
+        // Compare the packed encodings directly (codecs are shared per layout)
         BoardState otherBoard = (BoardState) obj;
-
-        // Compare the two boards using deep equality
-        if (!Arrays.deepEquals(this.board, otherBoard.board)) {
-            return false;
-        }
-
-        return true;
+        return codec == otherBoard.codec && low == otherBoard.low && high == otherBoard.high
+                && Arrays.equals(bytes, otherBoard.bytes);
     }
 
 }
@@ -0,0 +1,185 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Breadth-first heuristic search (Zhou & Hansen 2006) with divide-and-conquer solution reconstruction.
+// Nodes are expanded in order of g, as in uniform-cost search, and pruned when f exceeds an upper
+// bound; the bound starts at h(start) and rises to the smallest pruned f until a solution is found,
+// as in IDA*, so the first solution is optimal.
+//
+// No closed list is kept: moves are reversible, so a state expanded at g can only be generated
+// again from a node with g at most one move cost higher. Expanded states are dropped once every
+// open node is further ahead than that, leaving the open layers and a thin boundary behind them.
+// Nodes have no parent pointers either. Each node instead carries the edge where its path first
+// crossed the middle of the bound (its relay); the solution is rebuilt by solving the halves before
+// and after the goal's relay the same way, recursively, down to single moves.
+class BreadthFirstHeuristicSearch extends SearchAlgorithm {
+    private final int maxMoveCost;     // Largest cost of any move on this board
+    private long nodesCreated;
+    private long peakStored;           // Most states held at once (open plus boundary)
+    private int nextBound;             // Smallest f pruned by the last search
+    private short[] moves = new short[16];
+    private int moveCount;
+
+    public BreadthFirstHeuristicSearch(BoardState initialState, BoardState goalState,
+                                       boolean printTime, boolean printOpenList) {
+        super(initialState, goalState, printTime, printOpenList);
+        int maxCost = 1;
+        for (int cell = 0; cell < initialState.rows * initialState.cols; cell++) {
+            int code = initialState.codeAt(cell);
+            if (code != BoardState.EMPTY && code != BoardState.BLOCKED) {
+                maxCost = Math.max(maxCost, calculateMoveCostBall(BoardState.charOf(code)));
+            }
+        }
+        this.maxMoveCost = maxCost;
+    }
+
+    // Search node without a parent pointer: the edge (relayParent -> relay) where the path to it first
+    // reached half the bound, null until then
+    private class FrontierNode extends SearchNode {
+        BoardState relayParent;
+        int relayParentCost;
+        BoardState relay;
+        int relayCost;
+
+        FrontierNode(SearchNode source) {
+            super(source.state, null, source.pathCost, source.move, source.heuristicCost);
+        }
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        long startTime = System.currentTimeMillis();
+        nodesCreated = 0;
+        peakStored = 0;
+        moveCount = 0;
+        if (initialState.isGoalState(goalState)) {
+            return new SearchResult("", 1, 0, 0);
+        }
+
+        int bound = heuristic(initialState);
+        FrontierNode goalNode;
+        while (true) {
+            goalNode = search(initialState, goalState, goalDistances, bound);
+            iterationCompleted(bound);
+            if (goalNode != null || nextBound == Integer.MAX_VALUE) {
+                break;
+            }
+            bound = nextBound;
+        }
+
+        if (goalNode == null) {
+            return new SearchResult("No Path", (int) Math.min(nodesCreated, Integer.MAX_VALUE), Integer.MAX_VALUE,
+                    (System.currentTimeMillis() - startTime) / 1000.0);
+        }
+        recover(initialState, goalState, goalNode);
+        int nodes = (int) Math.min(nodesCreated, Integer.MAX_VALUE); // Including the searches of recover()
+        if (listener != null) {
+            listener.message("BFHS: at most " + peakStored + " states stored at once");
+        }
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        return new SearchResult(reconstructPath(moves, moveCount), nodes, goalNode.pathCost, totalTime);
+    }
+
+    // Uniform-cost search from 'from' to 'to' over the nodes with f <= bound, h measured with the
+    // given distance table. Returns the target's node, or null with nextBound set.
+    private FrontierNode search(BoardState from, BoardState to, int[][] distances, int bound) {
+        BucketOpenList<FrontierNode> openList = new BucketOpenList<>();
+        PackedStateMap known = new PackedStateMap();        // g of every open or boundary state
+        ArrayDeque<BoardState> boundary = new ArrayDeque<>(); // Expanded states, in order of g
+        int middle = (bound + 1) / 2;
+        nextBound = Integer.MAX_VALUE;
+
+        FrontierNode root = new FrontierNode(new SearchNode(from, null, 0, NO_MOVE, heuristic(from, distances)));
+        openList.add(root, 0, 0);
+        known.putIfLower(from, 0);
+        nodesCreated++;
+
+        while (!openList.isEmpty()) {
+            FrontierNode node = openList.poll();
+            if (node.pathCost > known.get(node.state)) {
+                continue; // Reached more cheaply after it was queued
+            }
+            if (node.state.equals(to)) {
+                return node;
+            }
+            // Expanded states more than one move behind this node cannot be generated again
+            while (!boundary.isEmpty() && known.get(boundary.peekFirst()) < node.pathCost - maxMoveCost) {
+                known.remove(boundary.pollFirst());
+            }
+            boundary.addLast(node.state);
+
+            for (SearchNode successor : generateSuccessors(node, distances)) {
+                int f = successor.getTotalCost();
+                if (f > bound) {
+                    nextBound = Math.min(nextBound, f);
+                    continue;
+                }
+                if (!known.putIfLower(successor.state, successor.pathCost)) {
+                    metrics.duplicatesPruned++;
+                    continue;
+                }
+                FrontierNode child = new FrontierNode(successor);
+                if (node.relay != null) {
+                    child.relayParent = node.relayParent;
+                    child.relayParentCost = node.relayParentCost;
+                    child.relay = node.relay;
+                    child.relayCost = node.relayCost;
+                } else if (child.pathCost >= middle) {
+                    child.relayParent = node.state;
+                    child.relayParentCost = node.pathCost;
+                    child.relay = child.state;
+                    child.relayCost = child.pathCost;
+                }
+                openList.add(child, child.pathCost, child.pathCost);
+                nodesCreated++;
+            }
+            peakStored = Math.max(peakStored, known.size());
+            metrics.openSize(openList.size());
+
+            if (listener != null) {
+                listener.openListChanged(null, openList);
+            }
+        }
+        return null;
+    }
+
+    // Append the moves of an optimal path from 'from' to 'to', given the target's node from a search
+    // between them: split at the relay (or its parent if the relay is the target) and solve each half
+    private void recover(BoardState from, BoardState to, FrontierNode target) {
+        if (target.relay == null) {
+            throw new IllegalStateException("Solution of cost " + target.pathCost + " has no relay");
+        }
+        boolean relayIsTarget = target.relay.equals(to);
+        BoardState split = relayIsTarget ? target.relayParent : target.relay;
+        int splitCost = relayIsTarget ? target.relayParentCost : target.relayCost;
+        if (split.equals(from)) {
+            appendMove(from, to); // A single move
+            return;
+        }
+        solveSegment(from, split, splitCost);
+        solveSegment(split, to, target.pathCost - splitCost);
+    }
+
+    // Search between two states of a known optimal path, whose cost is exactly the bound
+    private void solveSegment(BoardState from, BoardState to, int cost) {
+        int[][] distances = to.equals(goalState) ? goalDistances : buildDistanceTable(to);
+        FrontierNode target = search(from, to, distances, cost);
+        if (target == null) {
+            throw new IllegalStateException("No path of cost " + cost + " between relay states");
+        }
+        recover(from, to, target);
+    }
+
+    private void appendMove(BoardState from, BoardState to) {
+        for (SearchNode successor : generateSuccessors(new SearchNode(from, null, 0, NO_MOVE, 0))) {
+            if (successor.state.equals(to)) {
+                if (moveCount == moves.length) {
+                    moves = Arrays.copyOf(moves, moveCount * 2);
+                }
+                moves[moveCount++] = successor.move;
+                return;
+            }
+        }
+        throw new IllegalStateException("Relay states are not one move apart");
+    }
+}
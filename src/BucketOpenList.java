@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Two-level bucket open list for small integer costs: buckets indexed by f, each split by g.
+// poll() returns an item with the lowest f and, within that f, the highest g (LIFO among equals).
+// Push is O(1); pop is O(1) amortized because the f and g cursors only move over empty buckets.
+class BucketOpenList<T> implements OpenList<T> {
+    // Growable LIFO stack for one (f, g) bucket
+    private static final class Stack {
+        Object[] items = new Object[4];
+        int size;
+    }
+
+    private Stack[][] buckets = new Stack[64][]; // [f][g], rows allocated on demand
+    private int[] topG = new int[64];            // Highest g that may be non-empty in row f
+    private int minF = Integer.MAX_VALUE;         // Lowest f that may be non-empty
+    private int size;
+
+    @Override
+    public void add(T item, int f, int g) {
+        if (f < 0 || g < 0) {
+            throw new IllegalArgumentException("Bucket open list needs non-negative costs: f=" + f + ", g=" + g);
+        }
+        if (f >= buckets.length) {
+            int capacity = Math.max(f + 1, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, capacity);
+            topG = Arrays.copyOf(topG, capacity);
+        }
+        Stack[] row = buckets[f];
+        if (row == null || g >= row.length) {
+            row = row == null ? new Stack[Math.max(g + 1, 8)] : Arrays.copyOf(row, Math.max(g + 1, row.length * 2));
+            buckets[f] = row;
+        }
+        Stack stack = row[g];
+        if (stack == null) {
+            stack = new Stack();
+            row[g] = stack;
+        } else if (stack.size == stack.items.length) {
+            stack.items = Arrays.copyOf(stack.items, stack.size * 2);
+        }
+        stack.items[stack.size++] = item;
+
+        if (g > topG[f] || topG[f] < 0) {
+            topG[f] = g;
+        }
+        if (f < minF) {
+            minF = f;
+        }
+        size++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (true) {
+            Stack[] row = buckets[minF];
+            if (row != null) {
+                for (int g = topG[minF]; g >= 0; g--) {
+                    Stack stack = row[g];
+                    if (stack != null && stack.size > 0) {
+                        topG[minF] = g;
+                        T item = (T) stack.items[--stack.size];
+                        stack.items[stack.size] = null;
+                        size--;
+                        return item;
+                    }
+                }
+                topG[minF] = -1; // Row is empty
+            }
+            minF++;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Iterates in poll order: ascending f, descending g, most recent first
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int f = minF;
+            private int g = f < buckets.length ? topG[f] + 1 : -1; // next() steps down before reading
+            private int index = -1;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                while (true) {
+                    if (index >= 0) {
+                        remaining--;
+                        return (T) buckets[f][g].items[index--];
+                    }
+                    // Advance to the next non-empty (f, g) bucket
+                    if (--g < 0) {
+                        f++;
+                        g = topG[f];
+                    }
+                    Stack[] row = buckets[f];
+                    if (row != null && g >= 0 && g < row.length && row[g] != null) {
+                        index = row[g].size - 1;
+                    }
+                }
+            }
+        };
+    }
+}
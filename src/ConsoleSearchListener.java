@@ -0,0 +1,80 @@
+// Prints search progress to standard output: the open list dumps and notes of the "with open"
+// option, and improved solutions and bounds of the anytime algorithms. The text of each callback
+// comes from the static helpers below, which TraceDecoder shares to reproduce this output from a
+// binary trace.
+class ConsoleSearchListener implements SearchListener {
+    private final boolean printOpenList;
+    private final boolean printProgress;
+
+    ConsoleSearchListener(boolean printOpenList, boolean printProgress) {
+        this.printOpenList = printOpenList;
+        this.printProgress = printProgress;
+    }
+
+    @Override
+    public void nodeExpanded(BoardState state, int pathCost, int heuristicCost) {
+        if (printOpenList) {
+            print(expansionText(state, pathCost, heuristicCost));
+        }
+    }
+
+    @Override
+    public void openListChanged(String label, Iterable<? extends SearchAlgorithm.SearchNode> openList) {
+        if (!printOpenList) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(openListHeader(label));
+        for (SearchAlgorithm.SearchNode node : openList) {
+            sb.append('\n').append(node);
+        }
+        print(sb.toString());
+    }
+
+    @Override
+    public void iterationCompleted(int bound, String text) {
+        if (printOpenList) {
+            print(text);
+        }
+    }
+
+    @Override
+    public void solutionImproved(String solution, int cost, double runtime) {
+        if (printProgress) {
+            print("Improved solution: cost " + cost + " after " + runtime + " seconds");
+        }
+    }
+
+    @Override
+    public void boundImproved(int cost, double bound, double runtime) {
+        if (printProgress) {
+            print("Solution cost " + cost + " is within " + String.format("%.3f", bound) + " of optimal after "
+                    + runtime + " seconds");
+        }
+    }
+
+    @Override
+    public void message(String text) {
+        if (printOpenList) {
+            print(text);
+        }
+    }
+
+    static String expansionText(BoardState state, int pathCost, int heuristicCost) {
+        return "Expanding:\n" + SearchAlgorithm.describeNode(state, pathCost, heuristicCost);
+    }
+
+    // First line of an open list dump; its nodes follow, one describeNode() block each
+    static String openListHeader(String label) {
+        return label == null ? "Open List Contents:" : "Open List Contents (" + label + "):";
+    }
+
+    // Iteration line of the algorithms that have no wording of their own
+    static String iterationText(int bound) {
+        return "Bound " + bound + " completed.";
+    }
+
+    // One println per callback, so lines from parallel workers do not interleave
+    private static void print(String text) {
+        System.out.println(text);
+    }
+}
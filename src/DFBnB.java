@@ -1,92 +1,144 @@
-import java.util.*;
-import java.util.Collections;
+// Anytime depth-first branch and bound on one mutable board (see InPlaceSearch). The upper bound U is
+// seeded by a short greedy best-first pass, then every cheaper solution found by the depth-first
+// search tightens it and is reported to the listener. Nodes with f >= U are pruned, and a bounded
+// transposition table (-Dsearch.tt.mb) skips states already expanded at no higher g.
+class DFBnBSearch extends InPlaceSearch {
+    // Expansion cap of the greedy pass; if it finds nothing the search starts without a bound
+    private static final int GREEDY_EXPANSIONS = 100_000;
+
+    private TranspositionTable table;
+    private int upperBound;            // Cost of the incumbent (Integer.MAX_VALUE if none)
+    private String incumbent;          // Path of the incumbent
+    private long startTime;
 
-class DFBnBSearch extends SearchAlgorithm {
     public DFBnBSearch(BoardState initialState, BoardState goalState,
                        boolean printTime, boolean printOpenList) {
         super(initialState, goalState, printTime, printOpenList);
     }
 
     @Override
-    public SearchResult search() {
-        long startTime = System.currentTimeMillis();
-
-        int nodesCreated = 0;
-        int t = heuristic(initialState) * 2; // Initial upper bound
-        SearchResult result = null;
-
-        Stack<SearchNode> stack = new Stack<>();
-        SearchNode startNode = new SearchNode(initialState, null, 0, "");
-        stack.push(startNode);
-
-        while (!stack.isEmpty()) {
-            SearchNode currentNode = stack.pop();
-
-            if (currentNode.isMarkedOut()) {
-                continue; // Skip marked-out nodes
-            }
-
-            currentNode.setMarkedOut(true);
-
-            // Print open list if required
-            if (printOpenList) {
-                System.out.println("Open List Contents:");
-                for (SearchNode node : stack) {
-                    System.out.println(node);
-                }
+    protected SearchResult runSearch() {
+        startTime = System.currentTimeMillis();
+        resetBoard();
+        table = TranspositionTable.forState(board);
+        upperBound = Integer.MAX_VALUE;
+        incumbent = null;
+
+        int rootHeuristic = heuristic(board);
+        if (rootHeuristic == 0 && board.isGoalState(goalState)) {
+            improve("", 0);
+        } else {
+            SearchNode greedy = greedySolution();
+            if (greedy != null) {
+                improve(reconstructPath(greedy), greedy.pathCost);
             }
+            search(0, 0, rootHeuristic);
+        }
 
-            // Generate and sort successors by f-cost
-            currentNode.getSuccessorsStates();
-            List<SearchNode> successors = currentNode.successors;
-            successors.sort(Comparator.comparingInt(SearchNode::getTotalCost));
-
-            for (int i = 0; i < successors.size(); i++) {
-                SearchNode successor = successors.get(i);
+        if (listener != null && table != null) {
+            listener.message(table.toString());
+        }
 
-                // Avoid revisiting states already in the current path
-                if (isInPath(successor, stack)) {
-                    continue;
-                }
+        long endTime = System.currentTimeMillis();
+        double totalTime = (endTime - startTime) / 1000.0;
+        if (incumbent == null) {
+            return new SearchResult("No Path", nodesCreatedForResult(), Integer.MAX_VALUE, totalTime);
+        }
+        return new SearchResult(incumbent, nodesCreatedForResult(), upperBound, totalTime);
+    }
 
-                // Prune nodes exceeding the current bound
-                if (successor.getTotalCost() >= t) {
-                    successors = successors.subList(0, i); // Prune successors efficiently
-                    break;
-                }
+    // Depth-first search below the current board, pruning every node that cannot beat the incumbent
+    private void search(int depth, int pathCost, int heuristicCost) {
+        if (listener != null) {
+            listener.nodeExpanded(board, pathCost, heuristicCost);
+        }
 
-                // Goal state check
-                if (successor.state.isGoalState(goalState)) {
-                    t = successor.getTotalCost(); // Update bound to the cost of the solution
-                    long endTime = System.currentTimeMillis();
-                    double totalTime = (endTime - startTime) / 1000.0;
-                    result = new SearchResult(reconstructPath(successor), nodesCreated, successor.pathCost, totalTime);
-                    successors = successors.subList(0, i + 1); // Prune successors beyond the goal node
-                    break;
-                }
+        int count = generateMoves(depth, pathCost, heuristicCost);
+        short[] moves = moveBuffers[depth];
+        int[] heuristics = heuristicBuffers[depth];
+        int[] totals = totalBuffers[depth];
 
-                // Push the successor to the stack
-                stack.push(successor);
-                nodesCreated++;
+        for (int i = 0; i < count; i++) {
+            // Moves are sorted by f; the bound can shrink while earlier siblings are searched
+            if (totals[i] >= upperBound) {
+                nodesCreated += count - i;
+                return;
             }
+            short move = moves[i];
+            int from = move >> 2;
+            int to = moveTarget(board, move);
+            int childCost = pathCost + costByCode[board.codeAt(from)];
+
+            board.applyMove(from, to);
+            // Path-based loop avoidance in one hash probe instead of a scan of the stack
+            if (path.get(board) != PackedStateMap.MISSING) {
+                metrics.duplicatesPruned++;
+                board.applyMove(to, from);
+                continue;
+            }
+            nodesCreated++;
+            pathMoves[depth] = move;
+
+            if (heuristics[i] == 0 && board.isGoalState(goalState)) {
+                // f < U was checked above, so this is an improvement
+                improve(reconstructPath(pathMoves, depth + 1), childCost);
+            } else if (isNewOrCheaper(childCost)) {
+                path.putIfLower(board, childCost);
+                search(depth + 1, childCost, heuristics[i]);
+                path.remove(board);
+            }
+            board.applyMove(to, from);
         }
+    }
 
-        if (result == null) {
-            long endTime = System.currentTimeMillis();
-            double totalTime = (endTime - startTime) / 1000.0;
-            return new SearchResult("No Path", nodesCreated, Integer.MAX_VALUE, totalTime);
+    // Record the board's g unless it was already expanded at no higher g. U only shrinks, so the
+    // earlier expansion searched under at least the bound this one would get.
+    private boolean isNewOrCheaper(int pathCost) {
+        if (table == null) {
+            return true;
+        }
+        int entry = table.find(board);
+        if (entry != TranspositionTable.MISSING && table.g(entry) <= pathCost) {
+            metrics.duplicatesPruned++;
+            return false;
         }
+        int draft = upperBound == Integer.MAX_VALUE ? Integer.MAX_VALUE : upperBound - pathCost;
+        table.store(board, pathCost, 0, draft, 0);
+        return true;
+    }
 
-        return result;
+    private void improve(String solution, int cost) {
+        upperBound = cost;
+        incumbent = solution;
+        if (listener != null) {
+            listener.solutionImproved(solution, cost, (System.currentTimeMillis() - startTime) / 1000.0);
+        }
     }
 
-    // Helper function to check if a node is already in the current path
-    private boolean isInPath(SearchNode node, Stack<SearchNode> stack) {
-        for (SearchNode n : stack) {
-            if (n.state.equals(node.state)) {
-                return true;
+    // Greedy best-first search on h alone: usually finds a solution quickly, with no optimality
+    // guarantee. Returns its goal node, or null if the expansion cap is hit first.
+    private SearchNode greedySolution() {
+        OpenList<SearchNode> openList = new BucketOpenList<>();
+        PackedStateMap seen = new PackedStateMap();
+        SearchNode root = new SearchNode(initialState, null, 0, NO_MOVE);
+        openList.add(root, root.heuristicCost, 0);
+        seen.putIfLower(initialState, 0);
+
+        for (int expansions = 0; expansions < GREEDY_EXPANSIONS && !openList.isEmpty(); expansions++) {
+            SearchNode currentNode = openList.poll();
+            for (SearchNode successor : generateSuccessors(currentNode)) {
+                if (!seen.putIfLower(successor.state, 0)) {
+                    metrics.duplicatesPruned++;
+                    continue;
+                }
+                nodesCreated++;
+                if (successor.state.isGoalState(goalState)) {
+                    return successor;
+                }
+                openList.add(successor, successor.heuristicCost, 0);
             }
+            metrics.openSize(openList.size());
         }
-        return false;
+        return null;
     }
 }
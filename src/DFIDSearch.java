@@ -1,96 +1,203 @@
-import java.util.*;
+import java.util.Arrays;
+
+// Depth-first iterative deepening on depth (number of moves), built on the in-place engine
+// (see InPlaceSearch) with an explicit stack, so deep limits cannot overflow the thread stack.
+//
+// While it fits in the frontier budget (-Dsearch.dfid.frontier.mb), the cutoff frontier of limit k is
+// kept and iteration k + 1 only expands it by one move instead of starting again from the root. Moves
+// are reversible, so a state first reached at depth k + 1 can only repeat one from depths k - 1, k or
+// k + 1, and those three frontiers are all that duplicate detection needs. Once a frontier outgrows the
+// budget, the search falls back to regular re-expansion from the root for the remaining limits.
+class DFIDSearch extends InPlaceSearch {
+    private static final int NOT_FOUND = -1;
+
+    private int[] moveCursors = new int[64];   // [depth]: next move to try at that depth
+    private int[] moveCounts = new int[64];    // [depth]: number of moves generated at that depth
+    private int[] pathCosts = new int[64];     // [depth]: g of the board at that depth
+    private boolean cutoff;                    // Set when the last limited search stopped at its limit
+    private int lastFrontierDepth;             // Deepest limit completed by frontierSearch
 
-class DFIDSearch extends SearchAlgorithm {
     public DFIDSearch(BoardState initialState, BoardState goalState,
                       boolean printTime, boolean printOpenList) {
         super(initialState, goalState, printTime, printOpenList);
     }
 
     @Override
-    public SearchResult search() {
+    protected SearchResult runSearch() {
         long startTime = System.currentTimeMillis();
-        int nodesCreated = 0;
+        resetBoard();
 
-        // Iteratively increase depth limit
-        for (int depthLimit = 1; ; depthLimit++) {
-            nodesCreated = 0;
-            Set<BoardState> visited = new HashSet<>(); // Create hash table H
+        if (initialState.isGoalState(goalState)) {
+            return new SearchResult("", 0, 0, 0);
+        }
+
+        long budget = (long) SearchConfig.dfidFrontierMegabytes() << 20;
+        SearchResult result = budget > 0 ? frontierSearch(budget) : null;
+        int depthLimit = result == null ? lastFrontierDepth + 1 : 0;
+
+        // Regular iterative deepening: re-expand from the root at every depth limit
+        for (; result == null; depthLimit++) {
+            rewindBoard();
+            int depth = limitedSearch(depthLimit, goalState);
+            if (depth != NOT_FOUND) {
+                result = new SearchResult(reconstructPath(pathMoves, depth), nodesCreatedForResult(),
+                        pathCosts[depth], 0);
+            } else if (!cutoff) {
+                result = new SearchResult("No Path", nodesCreatedForResult(), Integer.MAX_VALUE, 0);
+            } else {
+                iterationCompleted(depthLimit, "Depth Limit " + depthLimit + " completed.");
+            }
+        }
 
-            // Perform depth-limited DFS
-            SearchResult result = limitedDFS(new SearchNode(initialState, null, 0, ""), depthLimit, visited, nodesCreated);
+        result.runtime = (System.currentTimeMillis() - startTime) / 1000.0;
+        return result;
+    }
 
-            // If a solution is found, return it
-            if (result != null) {
-                result.runtime = (System.currentTimeMillis() - startTime) / 1000.0;
-                return result;
+    // Iterations that resume from the stored frontier. Returns the result, or null once a frontier
+    // no longer fits in the budget (lastFrontierDepth is then the last limit fully searched).
+    private SearchResult frontierSearch(long budget) {
+        PackedStateMap previous = new PackedStateMap();
+        PackedStateMap current = new PackedStateMap();
+        current.putIfLower(initialState, 0);
+        BoardState frontierState = new BoardState(initialState);
+
+        for (int depth = 0; ; depth++) {
+            lastFrontierDepth = depth;
+            PackedStateMap next = new PackedStateMap();
+            for (int slot = 0; slot < current.capacity(); slot++) {
+                if (!current.isOccupied(slot)) {
+                    continue;
+                }
+                current.loadKey(slot, board);
+                current.loadKey(slot, frontierState);
+                int count = generateMoves(0, 0, 0);
+                short[] moves = moveBuffers[0];
+                for (int i = 0; i < count; i++) {
+                    short move = moves[i];
+                    int from = move >> 2;
+                    int to = moveTarget(board, move);
+                    int moveCost = costByCode[board.codeAt(from)];
+                    board.applyMove(from, to);
+                    nodesCreated++;
+                    if (board.isGoalState(goalState)) {
+                        return frontierSolution(frontierState, depth, move, moveCost);
+                    }
+                    if (previous.get(board) != PackedStateMap.MISSING || current.get(board) != PackedStateMap.MISSING
+                            || !next.putIfLower(board, 0)) {
+                        metrics.duplicatesPruned++;
+                    }
+                    board.applyMove(to, from);
+                }
+                if (previous.memoryBytes() + current.memoryBytes() + next.memoryBytes() > budget) {
+                    if (listener != null) {
+                        listener.message("Frontier at depth " + (depth + 1) + " exceeds the memory budget; re-expanding from the root.");
+                    }
+                    return null;
+                }
             }
 
-            if (printOpenList) {
-                System.out.println("Depth Limit " + depthLimit + " completed.");
+            if (next.size() == 0) {
+                return new SearchResult("No Path", nodesCreatedForResult(), Integer.MAX_VALUE, 0);
             }
+            metrics.openSize(next.size());
+            iterationCompleted(depth + 1,
+                    "Depth Limit " + (depth + 1) + " completed (frontier of " + next.size() + " states).");
+            previous = current;
+            current = next;
         }
     }
 
-    private SearchResult limitedDFS(SearchNode node, int depthLimit, Set<BoardState> visited, int nodesCreated) {
-        BoardState state = node.state;
-
-        // If goal is found, return path
-        if (state.isGoalState(goalState)) {
-            return new SearchResult(reconstructPath(node), nodesCreated, node.pathCost, 0); // runtime updated in main
+    // The goal was reached by one move from a frontier state at the given depth: recover the path
+    // to that state by one limited search from the root, then append the move
+    private SearchResult frontierSolution(BoardState frontierState, int depth, short move, int moveCost) {
+        rewindBoard();
+        int found = limitedSearch(depth, frontierState);
+        if (found == NOT_FOUND) {
+            throw new IllegalStateException("Frontier state is not reachable within " + depth + " moves");
         }
+        if (found == pathMoves.length) {
+            pathMoves = Arrays.copyOf(pathMoves, found + 1);
+        }
+        pathMoves[found] = move;
+        return new SearchResult(reconstructPath(pathMoves, found + 1), nodesCreatedForResult(),
+                pathCosts[found] + moveCost, 0);
+    }
 
-        // If limit is 0, return cutoff
+    // Depth-limited search from the current (root) board for the target, on an explicit stack.
+    // Returns the depth the target was found at, with its moves in pathMoves and its g in
+    // pathCosts, or NOT_FOUND; cutoff tells whether any node was left unexpanded at the limit.
+    private int limitedSearch(int depthLimit, BoardState target) {
+        cutoff = false;
+        if (board.isGoalState(target)) {
+            pathCosts[0] = 0;
+            return 0;
+        }
         if (depthLimit == 0) {
-            return null; // Represents cutoff
+            cutoff = true;
+            return NOT_FOUND;
         }
 
-        // Insert the current state into the hash table
-        visited.add(state);
-
-        boolean isCutoff = false;
-
-        // Generate successors
-        List<SearchNode> successors = generateSuccessors(node);
-        nodesCreated += successors.size();
-
-        for (SearchNode successor : successors) {
-            // If successor is already in the hash table, skip it
-            if (visited.contains(successor.state)) {
+        int rootHeuristic = heuristic(board);
+        ensureDepth(0);
+        pathCosts[0] = 0;
+        moveCounts[0] = generateMoves(0, 0, rootHeuristic);
+        moveCursors[0] = 0;
+        int depth = 0;
+
+        while (true) {
+            if (moveCursors[depth] == moveCounts[depth]) {
+                // Every move from this board is done: undo the move that led here
+                if (depth == 0) {
+                    return NOT_FOUND;
+                }
+                depth--;
+                path.remove(board);
+                short move = pathMoves[depth];
+                board.applyMove(moveTarget(board, move), move >> 2);
                 continue;
             }
 
-            // Recursive call with reduced depth limit
-            SearchResult result = limitedDFS(successor, depthLimit - 1, visited, nodesCreated);
-
-            if (result == null) {
-                isCutoff = true;
-            } else if (result != null) {
-                return result; // Solution found
+            int i = moveCursors[depth]++;
+            short move = moveBuffers[depth][i];
+            int from = move >> 2;
+            int to = moveTarget(board, move);
+            int childCost = pathCosts[depth] + costByCode[board.codeAt(from)];
+
+            board.applyMove(from, to);
+            // Path-based loop avoidance in one hash probe
+            if (path.get(board) != PackedStateMap.MISSING) {
+                metrics.duplicatesPruned++;
+                board.applyMove(to, from);
+                continue;
+            }
+            nodesCreated++;
+            pathMoves[depth] = move;
+            int child = depth + 1;
+            ensureDepth(child);
+            pathCosts[child] = childCost;
+
+            if (board.isGoalState(target)) {
+                return child;
+            }
+            if (child == depthLimit) {
+                cutoff = true;
+                board.applyMove(to, from);
+                continue;
             }
-        }
-
-        // Remove the current state from the hash table (release memory for `n`)
-        visited.remove(state);
 
-        // Return cutoff if necessary
-        if (isCutoff) {
-            return null; // Represents cutoff
+            path.putIfLower(board, childCost);
+            moveCounts[child] = generateMoves(child, childCost, heuristicBuffers[depth][i]);
+            moveCursors[child] = 0;
+            depth = child;
         }
-
-        return null; // Represents failure
     }
 
-    @Override
-    protected String reconstructPath(SearchNode goalNode) {
-        // Efficient path reconstruction
-        Deque<String> pathStack = new ArrayDeque<>();
-        SearchNode current = goalNode;
-
-        while (current != null && current.parent != null) {
-            pathStack.push(current.path);
-            current = current.parent;
+    private void ensureDepth(int depth) {
+        if (depth >= pathCosts.length) {
+            int length = Math.max(depth + 1, pathCosts.length * 2);
+            moveCursors = Arrays.copyOf(moveCursors, length);
+            moveCounts = Arrays.copyOf(moveCounts, length);
+            pathCosts = Arrays.copyOf(pathCosts, length);
         }
-
-        return String.join("-", pathStack);
     }
 }
@@ -3,6 +3,7 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,19 +13,30 @@ public class Ex1 {
     private static boolean printTime;
 
     public static void main(String[] args) {
-        try {
-            // Read input file
-            SearchParameters params = readInputFile("input.txt");
+        // Batch mode: java Ex1 --batch <directory or multi-problem file> [output file]
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchSolver.main(args);
+            return;
+        }
+        // Binary open list trace back to text: java Ex1 --decode-trace <trace file> [output file]
+        if (args.length > 0 && args[0].equals("--decode-trace")) {
+            TraceDecoder.main(args);
+            return;
+        }
 
-            if (!isValidBoardState(params.initialState, params.goalState)) {
+        try {
+            // Read input file (boards with unknown cells or ragged rows are rejected while parsing)
+            SearchParameters params;
+            try {
+                params = readInputFile("input.txt");
+            } catch (IllegalArgumentException e) {
                 writeOutputFile("no solution", 0, 0, 0);
                 return;
             }
-            // Select and run appropriate search algorithm
-            SearchAlgorithm algorithm = selectSearchAlgorithm(params);
-            SearchResult result = algorithm.search();
-            // Validate the input board before proceeding
+            printTime = params.printTime;
 
+            // Validate the boards, then select and run the search algorithm
+            SearchResult result = solve(params, true);
 
             // Write output to file
             writeOutputFile(result.solution,result.nodesCreated,result.cost,result.runtime);
@@ -34,56 +46,150 @@ public class Ex1 {
         }
     }
 
+    // Run one parsed problem; boards that fail validation get the "no solution" result.
+    // reportProgress allows progress lines on standard output (e.g. DFBnB's improved solutions).
+    static SearchResult solve(SearchParameters params, boolean reportProgress) {
+        if (!isValidBoardState(params.initialState, params.goalState)) {
+            return new SearchResult("no solution", 0, 0, 0);
+        }
+        SearchAlgorithm algorithm = selectSearchAlgorithm(params);
+        // Anytime progress: each cheaper solution as it is found
+        boolean printProgress = params.printTime && reportProgress;
+        TraceWriter trace = params.printOpenList ? openTrace() : null;
+        if (trace != null) {
+            // The open list goes to the binary trace; only progress is printed
+            algorithm.setListener(SearchListener.combine(trace,
+                    printProgress ? new ConsoleSearchListener(false, true) : null));
+        } else if (printProgress) {
+            algorithm.setListener(new ConsoleSearchListener(params.printOpenList, true));
+        }
+
+        SearchResult result;
+        try {
+            result = algorithm.search();
+        } finally {
+            if (trace != null) {
+                try {
+                    trace.close();
+                } catch (IOException e) {
+                    System.err.println("Error writing trace: " + e.getMessage());
+                }
+            }
+        }
+        if (SearchConfig.printMetrics()) {
+            System.err.println(params.algorithmName + " " + result.metrics
+                    + (Double.isNaN(result.suboptimalityBound) ? "" : ", suboptimality bound: " + result.suboptimalityBound));
+        }
+        return result;
+    }
+
+    // Binary open list trace if -Dsearch.trace is set; null means printing it as text
+    private static TraceWriter openTrace() {
+        Path traceFile = SearchConfig.traceFile();
+        if (traceFile == null) {
+            return null;
+        }
+        try {
+            return new TraceWriter(traceFile);
+        } catch (IOException e) {
+            System.err.println("Cannot create trace, printing the open list instead: " + e.getMessage());
+            return null;
+        }
+    }
+
     // Read input file and parse parameters
     private static SearchParameters readInputFile(String filename) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            // Parse algorithm
-            String algorithmName = reader.readLine().trim();
-
-            // Parse time printing option
-            String timeOption = reader.readLine().trim();
-            printTime = timeOption.equalsIgnoreCase("with time");
-
-            // Parse open list printing option
-            String openOption = reader.readLine().trim();
-            boolean printOpenList = openOption.equalsIgnoreCase("with open");
-
-            // Read initial board state
-            List<String> boardInput = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null && !line.equalsIgnoreCase("Goal state:")) {
-                boardInput.add(line.trim());
-            }
-            BoardState initialState = new BoardState(boardInput);
+            return parseProblem(reader);
+        }
+    }
 
-            // Read goal state
-            List<String> goalInput = new ArrayList<>();
-            while ((line = reader.readLine()) != null) {
-                goalInput.add(line.trim());
-            }
-            BoardState goalState = new BoardState(goalInput);
+    // Parse one problem: algorithm, time option, open list option, initial board, "Goal state:", goal board
+    static SearchParameters parseProblem(BufferedReader reader) throws IOException {
+        // Parse algorithm
+        String algorithmName = requiredLine(reader, "algorithm");
+
+        // Parse time printing option
+        String timeOption = requiredLine(reader, "time option");
+        boolean printTime = timeOption.equalsIgnoreCase("with time");
+
+        // Parse open list printing option
+        String openOption = requiredLine(reader, "open list option");
+        boolean printOpenList = openOption.equalsIgnoreCase("with open");
+
+        // Read initial board state; its dimensions are inferred from the rows given
+        List<String> boardInput = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null && !line.trim().equalsIgnoreCase("Goal state:")) {
+            boardInput.add(line.trim());
+        }
+        BoardState initialState = new BoardState(boardInput);
 
-            return new SearchParameters(algorithmName, initialState, goalState,
-                    printTime, printOpenList);
+        // Read goal state
+        List<String> goalInput = new ArrayList<>();
+        while ((line = reader.readLine()) != null) {
+            goalInput.add(line.trim());
         }
+        BoardState goalState = new BoardState(goalInput);
+
+        return new SearchParameters(algorithmName, initialState, goalState,
+                printTime, printOpenList);
     }
 
+    // Next line of a problem, trimmed; a truncated problem is invalid input like any other
+    private static String requiredLine(BufferedReader reader, String what) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IllegalArgumentException("Missing " + what + " line");
+        }
+        return line.trim();
+    }
 
     // Select search algorithm based on input
-    private static SearchAlgorithm selectSearchAlgorithm(SearchParameters params) {
+    static SearchAlgorithm selectSearchAlgorithm(SearchParameters params) {
         switch (params.algorithmName) {
             case "BFS":
                 return new BFSSearch(params.initialState, params.goalState,
                         params.printTime, params.printOpenList);
+            case "PBFS":
+                return new ParallelBFSSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "EBFS":
+                return new ExternalBFSSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
             case "DFID":
                 return new DFIDSearch(params.initialState, params.goalState,
                         params.printTime, params.printOpenList);
             case "A*":
                 return new AStarSearch(params.initialState, params.goalState,
                         params.printTime, params.printOpenList);
+            case "WA*":
+                return new WeightedAStarSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "ARA*":
+                return new ARAStarSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "PA*":
+                return new ParallelAStarSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "BiBFS":
+                return new BidirectionalBFSSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "BiA*":
+                return new BidirectionalAStarSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "BFHS":
+                return new BreadthFirstHeuristicSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
             case "IDA*":
                 return new IDAStarSearch(params.initialState, params.goalState,
                         params.printTime, params.printOpenList);
+            case "Table":
+                return new GoalTableSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
+            case "SMA*":
+                return new SMAStarSearch(params.initialState, params.goalState,
+                        params.printTime, params.printOpenList);
             case "DFBnB":
                 return new DFBnBSearch(params.initialState, params.goalState,
                         params.printTime, params.printOpenList);
@@ -96,87 +202,60 @@ public class Ex1 {
     // Method to write output to file
     private static void writeOutputFile(String solution, int nodeCount, double cost, double time) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter("output.txt"))) {
-            // Write solution path or "no path"
-            writer.write(solution);
-            writer.newLine();
+            writer.write(formatResult(solution, nodeCount, cost, time, printTime));
+        }
+    }
 
-            // Write node count
-            writer.write("Num: " + nodeCount);
-            writer.newLine();
+    // The output file contents: solution path (or "no path"), node count, cost and optional runtime
+    static String formatResult(String solution, int nodeCount, double cost, double time, boolean printTime) {
+        StringBuilder sb = new StringBuilder();
+        // Write solution path or "no path"
+        sb.append(solution).append(System.lineSeparator());
 
-            // Write solution cost
-            writer.write("Cost: " + (solution.equals("no path") ? "inf" : cost));
-            writer.newLine();
+        // Write node count
+        sb.append("Num: ").append(nodeCount).append(System.lineSeparator());
 
-            // Write runtime if required
-            if (printTime) {
-                writer.write( "run time: " + time + "");
-            }
+        // Write solution cost
+        sb.append("Cost: ").append(solution.equals("no path") ? "inf" : String.valueOf(cost)).append(System.lineSeparator());
+
+        // Write runtime if required
+        if (printTime) {
+            sb.append("run time: ").append(time);
         }
+        return sb.toString();
     }
 
-    // Validate the board state (2 R, 2 G, 2 B, X doesn't move)
-    private static boolean isValidBoardState(BoardState boardState, BoardState goalState) {
-        int countR = 0, countG = 0, countB = 0;
-        int xInitialX = -1, xInitialY = -1;
-        int xGoalX = -1, xGoalY = -1;
-
-        char[][] board = boardState.board;
-        char[][] goal = goalState.board;
-
-        // Find the position of 'X' in both initial and goal states
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                if (board[i][j] == 'X') {
-                    if (xInitialX == -1) { // first occurrence of 'X'
-                        xInitialX = i;
-                        xInitialY = j;
-                    }
-                    else {
-                        return false;
-                    }
-                }
-                if (goal[i][j] == 'X') {
-                    xGoalX = i;
-                    xGoalY = j;
-                }
-            }
+    // Validate the board state: same dimensions, blocked cells (X) in the same places and the same
+    // number of balls of every color in both boards
+    static boolean isValidBoardState(BoardState boardState, BoardState goalState) {
+        if (boardState.rows != goalState.rows || boardState.cols != goalState.cols) {
+            return false;
         }
-
-        // If 'X' has moved or is not in the same position in the goal state, return false
-        if (xInitialX != xGoalX || xInitialY != xGoalY) {
+        // Larger boards do not fit the move encoding
+        if ((long) boardState.rows * boardState.cols > SearchAlgorithm.MAX_CELLS) {
             return false;
         }
 
-        // Loop through the board to count colors
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[i].length; j++) {
-                if (board[i][j] == 'R') countR++;
-                if (board[i][j] == 'G') countG++;
-                if (board[i][j] == 'B') countB++;
+        int[] counts = new int[BoardState.CODES];
+        int cells = boardState.rows * boardState.cols;
+        for (int cell = 0; cell < cells; cell++) {
+            int code = boardState.codeAt(cell);
+            int goalCode = goalState.codeAt(cell);
+
+            // If 'X' has moved or is not in the same position in the goal state, return false
+            if ((code == BoardState.BLOCKED) != (goalCode == BoardState.BLOCKED)) {
+                return false;
             }
+            counts[code]++;
+            counts[goalCode]--;
         }
 
-        // Check if there are exactly 2 R's, 2 G's, and 2 B's
-        return countR == 2 && countG == 2 && countB == 2;
+        // Every color must appear as often in the goal as in the initial board
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
     }
 }
-
-// Helper class to pass search parameters
-class SearchParameters {
-    String algorithmName;
-    BoardState initialState;
-    BoardState goalState;
-    boolean printTime;
-    boolean printOpenList;
-
-    public SearchParameters(String algorithmName, BoardState initialState,
-                            BoardState goalState, boolean printTime,
-                            boolean printOpenList) {
-        this.algorithmName = algorithmName;
-        this.initialState = initialState;
-        this.goalState = goalState;
-        this.printTime = printTime;
-        this.printOpenList = printOpenList;
-    }
-}
\ No newline at end of file
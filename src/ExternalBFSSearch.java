@@ -0,0 +1,318 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// Breadth-first search with its layers on disk instead of a closed list in memory, for boards whose
+// state space does not fit in the heap. Each layer is a SortedStateFile. The next layer is built by
+// streaming the current one, collecting successors in a sort buffer (-Dsearch.ebfs.mb) that is
+// spilled as a sorted run whenever it fills up, and merging the runs. Duplicates are detected late,
+// during that merge: moves are reversible, so every successor of layer d lies in layer d - 1, d or
+// d + 1, and subtracting the two previous layers leaves exactly the new states.
+//
+// Layers keep no parent pointers; the path is recovered backwards from the goal by looking up, layer
+// by layer, a predecessor of the current state. Files live in a temporary directory under
+// -Dsearch.ebfs.dir that is removed when the search ends. Like BFS, the path found has the fewest
+// moves, not necessarily the lowest cost.
+class ExternalBFSSearch extends SearchAlgorithm {
+    private static final int MERGE_FAN_IN = 64; // Runs open at once; more are first merged in groups
+
+    private final int[] costByCode = new int[BoardState.CODES];
+    private int words;
+    private long[] goalKey;
+
+    public ExternalBFSSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
+        super(initialState, goalState, printTime, printOpenList);
+        for (int code = 0; code < BoardState.CODES; code++) {
+            costByCode[code] = code == BoardState.EMPTY || code == BoardState.BLOCKED
+                    ? 0 : calculateMoveCostBall(BoardState.charOf(code));
+        }
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        Path directory = null;
+        try {
+            Path base = SearchConfig.externalBfsDirectory();
+            Files.createDirectories(base);
+            directory = Files.createTempDirectory(base, "ebfs");
+            return search(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("External BFS failed: " + e.getMessage(), e);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private SearchResult search(Path directory) throws IOException {
+        long startTime = System.currentTimeMillis();
+        words = initialState.keyWords();
+        goalKey = key(goalState, new long[words]);
+
+        List<SortedStateFile> layers = new ArrayList<>();
+        try (SortedStateFile.Writer writer = new SortedStateFile.Writer(directory.resolve(layerName(0)), words)) {
+            writer.append(key(initialState, new long[words]), 0);
+            layers.add(writer.finish());
+        }
+        long nodesCreated = 1;
+        boolean found = initialState.isGoalState(goalState);
+
+        while (!found && layers.get(layers.size() - 1).count > 0) {
+            int depth = layers.size() - 1;
+            SortedStateFile previous = depth > 0 ? layers.get(depth - 1) : null;
+            NextLayer next = expandLayer(directory, layers.get(depth), previous, depth + 1);
+            layers.add(next.file);
+            found = next.containsGoal;
+            nodesCreated += next.file.count;
+            metrics.openSize(next.file.count);
+            iterationCompleted(depth + 1);
+        }
+
+        int nodes = (int) Math.min(nodesCreated, Integer.MAX_VALUE);
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        if (!found) {
+            return new SearchResult("no path", nodes, Double.POSITIVE_INFINITY, totalTime);
+        }
+        int depth = layers.size() - 1;
+        short[] moves = new short[depth];
+        int cost = recoverPath(layers, moves);
+        return new SearchResult(reconstructPath(moves, depth), nodes, cost, totalTime);
+    }
+
+    private static final class NextLayer {
+        final SortedStateFile file;
+        final boolean containsGoal;  // If so, the file stops at the goal
+
+        NextLayer(SortedStateFile file, boolean containsGoal) {
+            this.file = file;
+            this.containsGoal = containsGoal;
+        }
+    }
+
+    // Generate the successors of every state in the layer and write the new ones as the next layer
+    private NextLayer expandLayer(Path directory, SortedStateFile layer, SortedStateFile previous, int depth)
+            throws IOException {
+        // Records the sort buffer may grow to; it starts small so tiny layers stay cheap
+        int capacity = (int) Math.min((Integer.MAX_VALUE - 8) / words,
+                Math.max(64, ((long) SearchConfig.externalBfsBufferMegabytes() << 20) / (words * Long.BYTES)));
+        long[] buffer = new long[(int) Math.min(capacity, Math.max(64, layer.count * 4)) * words];
+        int filled = 0;
+        List<SortedStateFile> runs = new ArrayList<>();
+        int runNumber = 0;
+
+        BoardState board = new BoardState(initialState);
+        int[] blanks = new int[board.blankCount()];
+        SortedStateFile.Cursor states = layer.cursor();
+        while (states.advance()) {
+            board.setKeyWords(states.current, 0);
+            metrics.expanded++;
+            board.blankCells(blanks);
+            for (int cell : blanks) {
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    int from = board.codec.neighbour(cell, d ^ 1);
+                    int code = board.codeAt(from);
+                    if (code == BoardState.EMPTY || code == BoardState.BLOCKED) {
+                        continue;
+                    }
+                    if (filled * words == buffer.length) {
+                        if (buffer.length < capacity * words) {
+                            buffer = Arrays.copyOf(buffer, (int) Math.min((long) capacity * words, 2L * buffer.length));
+                        } else {
+                            runs.add(spill(directory.resolve(runName(depth, runNumber++)), buffer, filled));
+                            filled = 0;
+                        }
+                    }
+                    board.applyMove(from, cell);
+                    key(board, buffer, filled * words);
+                    board.applyMove(cell, from);
+                    filled++;
+                    metrics.generated++;
+                }
+            }
+        }
+
+        int unique = SortedStateFile.sortUnique(buffer, filled, words);
+        metrics.duplicatesPruned += filled - unique;
+        try {
+            // Too many runs to merge in one pass: merge them a group at a time into longer runs
+            while (runs.size() >= MERGE_FAN_IN) {
+                List<SortedStateFile> group = new ArrayList<>(runs.subList(0, MERGE_FAN_IN));
+                runs.subList(0, MERGE_FAN_IN).clear();
+                Path merged = directory.resolve(runName(depth, runNumber++));
+                runs.add(merge(merged, cursors(group), layer, previous, false).file);
+                for (SortedStateFile run : group) {
+                    run.delete();
+                }
+            }
+            List<SortedStateFile.Cursor> sources = cursors(runs);
+            sources.add(SortedStateFile.Cursor.inMemory(buffer, unique, words));
+            return merge(directory.resolve(layerName(depth)), sources, layer, previous, true);
+        } finally {
+            for (SortedStateFile run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    private static List<SortedStateFile.Cursor> cursors(List<SortedStateFile> runs) throws IOException {
+        List<SortedStateFile.Cursor> cursors = new ArrayList<>(runs.size() + 1);
+        for (SortedStateFile run : runs) {
+            cursors.add(run.cursor());
+        }
+        return cursors;
+    }
+
+    private SortedStateFile spill(Path file, long[] buffer, int filled) throws IOException {
+        int unique = SortedStateFile.sortUnique(buffer, filled, words);
+        metrics.duplicatesPruned += filled - unique;
+        try (SortedStateFile.Writer writer = new SortedStateFile.Writer(file, words)) {
+            for (int i = 0; i < unique; i++) {
+                writer.append(buffer, i * words);
+            }
+            return writer.finish();
+        }
+    }
+
+    // K-way merge of the sorted runs, dropping repeats across runs and every state of the current and
+    // previous layers, which are walked alongside in the same order. With stopAtGoal, the output ends
+    // at the goal.
+    private NextLayer merge(Path file, List<SortedStateFile.Cursor> sources, SortedStateFile layer,
+                            SortedStateFile previous, boolean stopAtGoal) throws IOException {
+        PriorityQueue<SortedStateFile.Cursor> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> SortedStateFile.compare(a.current, 0, b.current, 0, words));
+        for (SortedStateFile.Cursor source : sources) {
+            if (source.advance()) {
+                heads.add(source);
+            }
+        }
+        Subtraction current = new Subtraction(layer);
+        Subtraction older = new Subtraction(previous);
+        long[] last = null;
+
+        try (SortedStateFile.Writer writer = new SortedStateFile.Writer(file, words)) {
+            while (!heads.isEmpty()) {
+                SortedStateFile.Cursor head = heads.poll();
+                long[] state = head.current.clone();
+                if (head.advance()) {
+                    heads.add(head);
+                }
+                if (last != null && SortedStateFile.compare(last, 0, state, 0, words) == 0
+                        || current.contains(state) || older.contains(state)) {
+                    metrics.duplicatesPruned++;
+                    continue;
+                }
+                writer.append(state, 0);
+                last = state;
+                if (stopAtGoal && SortedStateFile.compare(state, 0, goalKey, 0, words) == 0) {
+                    for (SortedStateFile.Cursor source : heads) {
+                        source.close();
+                    }
+                    return new NextLayer(writer.finish(), true);
+                }
+            }
+            return new NextLayer(writer.finish(), false);
+        } finally {
+            current.close();
+            older.close();
+        }
+    }
+
+    // A layer walked in step with the merge: since queries come in ascending order, membership is a
+    // matter of advancing a cursor
+    private final class Subtraction {
+        private final SortedStateFile.Cursor cursor;
+        private boolean valid;
+
+        Subtraction(SortedStateFile layer) throws IOException {
+            cursor = layer == null ? null : layer.cursor();
+            valid = cursor != null && cursor.advance();
+        }
+
+        boolean contains(long[] state) throws IOException {
+            while (valid && SortedStateFile.compare(cursor.current, 0, state, 0, words) < 0) {
+                valid = cursor.advance();
+            }
+            return valid && SortedStateFile.compare(cursor.current, 0, state, 0, words) == 0;
+        }
+
+        void close() throws IOException {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    // Walk back from the goal: in each earlier layer, find a state one move away, undoing that move
+    // on the board. Fills moves with the forward moves and returns the path cost.
+    private int recoverPath(List<SortedStateFile> layers, short[] moves) throws IOException {
+        BoardState board = new BoardState(goalState);
+        int[] blanks = new int[board.blankCount()];
+        long[] key = new long[words];
+        int cost = 0;
+        for (int depth = moves.length - 1; depth >= 0; depth--) {
+            boolean stepped = false;
+            board.blankCells(blanks);
+            for (int b = 0; b < blanks.length && !stepped; b++) {
+                int cell = blanks[b];
+                for (int d = 0; d < DIRECTIONS.length && !stepped; d++) {
+                    int from = board.codec.neighbour(cell, d ^ 1);
+                    int code = board.codeAt(from);
+                    if (code == BoardState.EMPTY || code == BoardState.BLOCKED) {
+                        continue;
+                    }
+                    board.applyMove(from, cell);
+                    if (layers.get(depth).contains(key(board, key, 0))) {
+                        // Forward, the ball now on 'cell' slides back to 'from', the opposite way
+                        moves[depth] = encodeMove(cell, d ^ 1);
+                        cost += costByCode[code];
+                        stepped = true;
+                    } else {
+                        board.applyMove(cell, from);
+                    }
+                }
+            }
+            if (!stepped) {
+                throw new IllegalStateException("No predecessor in layer " + depth);
+            }
+        }
+        return cost;
+    }
+
+    private long[] key(BoardState board, long[] target) {
+        return key(board, target, 0);
+    }
+
+    private long[] key(BoardState board, long[] target, int base) {
+        for (int w = 0; w < words; w++) {
+            target[base + w] = board.keyWord(w);
+        }
+        return target;
+    }
+
+    private static String layerName(int depth) {
+        return "layer-" + depth + ".bin";
+    }
+
+    private static String runName(int depth, int run) {
+        return "run-" + depth + "-" + run + ".bin";
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            System.err.println("Could not remove " + directory + ": " + e.getMessage());
+        }
+    }
+}
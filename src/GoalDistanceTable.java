@@ -0,0 +1,338 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Exact cost-to-go for every arrangement of a goal's balls, for boards small enough to enumerate.
+// One backward uniform-cost sweep from the goal fills a dense array indexed by the arrangement's
+// multinomial rank (as in PatternDatabase, but over every ball color) with the optimal cost and the
+// first move of an optimal path. A query is then a walk along those moves: O(solution length) with
+// no search at all.
+//
+// Tables are cached as flat files per goal and move costs, mapped read-only, and kept in memory per
+// JVM, so repeated queries (e.g. in batch mode) share one table. The first query for a goal builds or
+// maps it; concurrent queries for the same goal wait for that one instead of building their own.
+class GoalDistanceTable {
+    static final int UNREACHABLE = -1;
+
+    private static final int MAGIC = 0x47445431; // "GDT1"
+    private static final Map<String, CompletableFuture<GoalDistanceTable>> LOADED = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final int[] freeCells;     // Board cells that are not blocked, in rank order
+    private final int[] neighbours;    // [free position * 4 + direction] -> neighbouring free position or -1
+    private final int[] counts;        // Balls (and blanks) of each cell code
+    private final int[] moveCosts;     // Move cost of each cell code
+    private final long size;
+    private ByteBuffer costs;          // Mapped: int cost-to-go per rank
+    private ByteBuffer moves;          // Mapped: short move code per rank (NO_MOVE at the goal)
+
+    private GoalDistanceTable(BoardState goal, int[] moveCosts) {
+        this.rows = goal.rows;
+        this.cols = goal.cols;
+        this.moveCosts = moveCosts;
+        int cells = rows * cols;
+        int[] freeIndex = new int[cells];
+        int free = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            freeIndex[cell] = goal.codeAt(cell) == BoardState.BLOCKED ? -1 : free++;
+        }
+        freeCells = new int[free];
+        counts = new int[BoardState.CODES];
+        for (int cell = 0; cell < cells; cell++) {
+            if (freeIndex[cell] >= 0) {
+                freeCells[freeIndex[cell]] = cell;
+                counts[goal.codeAt(cell)]++;
+            }
+        }
+        size = arrangements(free, counts);
+
+        neighbours = new int[free * 4];
+        for (int position = 0; position < free; position++) {
+            int row = freeCells[position] / cols;
+            int col = freeCells[position] % cols;
+            for (int d = 0; d < 4; d++) {
+                int newRow = (row + SearchAlgorithm.DIRECTIONS[d][0] + rows) % rows;
+                int newCol = (col + SearchAlgorithm.DIRECTIONS[d][1] + cols) % cols;
+                neighbours[position * 4 + d] = freeIndex[newRow * cols + newCol];
+            }
+        }
+    }
+
+    // Table for the goal, loaded from the cache directory or built there first; null if it is not
+    // cached and the goal has more arrangements than maxStates
+    static GoalDistanceTable forGoal(BoardState goal, int[] moveCosts, Path directory, long maxStates) {
+        GoalDistanceTable table = new GoalDistanceTable(goal, moveCosts);
+        if (table.size > Integer.MAX_VALUE / Integer.BYTES) {
+            return null;
+        }
+        byte[] header = table.header(goal);
+        Path file = directory.resolve(String.format("goal-%dx%d-%08x.bin", goal.rows, goal.cols, Arrays.hashCode(header)));
+        String key = file.toAbsolutePath().toString();
+        CompletableFuture<GoalDistanceTable> loaded = LOADED.get(key);
+        if (loaded == null) {
+            if (table.size > maxStates && !Files.exists(file)) {
+                return null; // Building it would take longer than searching
+            }
+            // Build outside the map, so other goals are never held up by this one
+            CompletableFuture<GoalDistanceTable> mine = new CompletableFuture<>();
+            loaded = LOADED.putIfAbsent(key, mine);
+            if (loaded == null) {
+                loaded = mine;
+                try {
+                    table.load(goal, file, header);
+                    mine.complete(table);
+                } catch (IOException | RuntimeException e) {
+                    LOADED.remove(key, mine); // A later query may try again
+                    mine.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            return loaded.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Cannot build goal distance table in " + directory + ": "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Optimal cost from the state to the goal, or UNREACHABLE
+    int cost(BoardState state) {
+        return costs.getInt((int) rank(state) * Integer.BYTES);
+    }
+
+    // First move of an optimal path from the state (SearchAlgorithm move code), NO_MOVE at the goal
+    short bestMove(BoardState state) {
+        return moves.getShort((int) rank(state) * Short.BYTES);
+    }
+
+    // Number of arrangements of n cells with the given count of each code, or Long.MAX_VALUE if that
+    // does not fit in a long
+    private static long arrangements(int n, int[] counts) {
+        long total = 1;
+        int remaining = n;
+        try {
+            for (int count : counts) {
+                total = Math.multiplyExact(total, binomial(remaining, count));
+                remaining -= count;
+            }
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+        return total;
+    }
+
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = Math.multiplyExact(result, n - k + i) / i;
+        }
+        return result;
+    }
+
+    // Lexicographic rank among all arrangements with the same counts. After fixing a prefix, the
+    // arrangements starting with code s number M * c[s] / n, where M counts all n-cell suffixes.
+    private long rank(BoardState state) {
+        int[] remaining = counts.clone();
+        int n = freeCells.length;
+        long suffixes = size;
+        long rank = 0;
+        for (int position = 0; position < freeCells.length; position++, n--) {
+            int code = state.codeAt(freeCells[position]);
+            for (int smaller = 0; smaller < code; smaller++) {
+                rank += suffixes * remaining[smaller] / n;
+            }
+            suffixes = suffixes * remaining[code] / n;
+            remaining[code]--;
+        }
+        return rank;
+    }
+
+    private long rank(int[] codes) {
+        int[] remaining = counts.clone();
+        int n = codes.length;
+        long suffixes = size;
+        long rank = 0;
+        for (int position = 0; position < codes.length; position++, n--) {
+            int code = codes[position];
+            for (int smaller = 0; smaller < code; smaller++) {
+                rank += suffixes * remaining[smaller] / n;
+            }
+            suffixes = suffixes * remaining[code] / n;
+            remaining[code]--;
+        }
+        return rank;
+    }
+
+    private void unrank(long rank, int[] codes) {
+        int[] remaining = counts.clone();
+        int n = codes.length;
+        long suffixes = size;
+        for (int position = 0; position < codes.length; position++, n--) {
+            for (int code = 0; code < remaining.length; code++) {
+                long block = suffixes * remaining[code] / n;
+                if (rank < block) {
+                    codes[position] = code;
+                    suffixes = block;
+                    remaining[code]--;
+                    break;
+                }
+                rank -= block;
+            }
+        }
+    }
+
+    // Backward uniform-cost sweep from the goal with a bucket queue (move costs are small integers).
+    // Moves are reversible at the same cost, so distances from the goal are costs to it.
+    private void build(BoardState goal, int[] distances, short[] bestMoves) {
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(bestMoves, SearchAlgorithm.NO_MOVE);
+        int[] codes = new int[freeCells.length];
+        for (int position = 0; position < freeCells.length; position++) {
+            codes[position] = goal.codeAt(freeCells[position]);
+        }
+        int goalRank = (int) rank(codes);
+        distances[goalRank] = 0;
+
+        IntStack[] buckets = {new IntStack()};
+        buckets[0].push(goalRank);
+        for (int cost = 0; cost < buckets.length; cost++) {
+            IntStack bucket = buckets[cost];
+            for (int i = 0; i < bucket.size; i++) {
+                int current = bucket.items[i];
+                if (distances[current] != cost) {
+                    continue; // Reached more cheaply after it was queued
+                }
+                unrank(current, codes);
+                for (int position = 0; position < codes.length; position++) {
+                    if (codes[position] != BoardState.EMPTY) {
+                        continue;
+                    }
+                    // The ball next to this blank slides into it; the neighbour state's optimal
+                    // move slides it back
+                    for (int d = 0; d < 4; d++) {
+                        int from = neighbours[position * 4 + d];
+                        if (from < 0 || codes[from] == BoardState.EMPTY) {
+                            continue;
+                        }
+                        int ball = codes[from];
+                        int newCost = cost + moveCosts[ball];
+                        codes[position] = ball;
+                        codes[from] = BoardState.EMPTY;
+                        int neighbour = (int) rank(codes);
+                        codes[from] = ball;
+                        codes[position] = BoardState.EMPTY;
+                        if (distances[neighbour] != UNREACHABLE && distances[neighbour] <= newCost) {
+                            continue;
+                        }
+                        distances[neighbour] = newCost;
+                        // From the neighbour, the ball on this blank's cell slides back to 'from',
+                        // which lies in direction d
+                        bestMoves[neighbour] = SearchAlgorithm.encodeMove(freeCells[position], d);
+                        if (newCost >= buckets.length) {
+                            int oldLength = buckets.length;
+                            buckets = Arrays.copyOf(buckets, Math.max(newCost + 1, oldLength * 2));
+                            for (int b = oldLength; b < buckets.length; b++) {
+                                buckets[b] = new IntStack();
+                            }
+                        }
+                        buckets[newCost].push(neighbour);
+                    }
+                }
+            }
+            buckets[cost] = null; // Done with this cost level
+        }
+    }
+
+    // Map the cached table for this goal, building and writing it first if it is missing or stale
+    private void load(BoardState goal, Path file, byte[] header) throws IOException {
+        long bodyBytes = size * (Integer.BYTES + Short.BYTES);
+        if (!matchesHeader(file, header, bodyBytes)) {
+            int[] distances = new int[(int) size];
+            short[] bestMoves = new short[(int) size];
+            build(goal, distances, bestMoves);
+
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "goal", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeFully(channel, ByteBuffer.wrap(header));
+                ByteBuffer buffer = ByteBuffer.allocate(distances.length * Integer.BYTES);
+                buffer.asIntBuffer().put(distances);
+                writeFully(channel, buffer);
+                buffer = ByteBuffer.allocate(bestMoves.length * Short.BYTES);
+                buffer.asShortBuffer().put(bestMoves);
+                writeFully(channel, buffer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mappedCosts = channel.map(FileChannel.MapMode.READ_ONLY, header.length, size * Integer.BYTES);
+            MappedByteBuffer mappedMoves = channel.map(FileChannel.MapMode.READ_ONLY,
+                    header.length + size * Integer.BYTES, size * Short.BYTES);
+            costs = mappedCosts;
+            moves = mappedMoves;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Magic, dimensions, entry count, move costs and the goal's arrangement of free cells
+    private byte[] header(BoardState goal) {
+        ByteBuffer buffer = ByteBuffer.allocate(3 * 4 + 8 + moveCosts.length * 4 + freeCells.length * 2);
+        buffer.putInt(MAGIC).putInt(rows).putInt(cols).putLong(size);
+        for (int cost : moveCosts) {
+            buffer.putInt(cost);
+        }
+        for (int cell : freeCells) {
+            buffer.put((byte) cell);
+            buffer.put((byte) goal.codeAt(cell));
+        }
+        return buffer.array();
+    }
+
+    private static boolean matchesHeader(Path file, byte[] header, long bodyBytes) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != header.length + bodyBytes) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer stored = ByteBuffer.allocate(header.length);
+            while (stored.hasRemaining() && channel.read(stored) >= 0) {
+                // Keep reading until the header is complete
+            }
+            return Arrays.equals(stored.array(), header);
+        }
+    }
+
+    // Growable int stack used as one cost bucket
+    private static final class IntStack {
+        int[] items = new int[64];
+        int size;
+
+        void push(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Answers a query from the exhaustive goal distance table (see GoalDistanceTable): the table is
+// built or mapped once per goal, then the solution is read off by following the stored best moves.
+// Goals with more arrangements than -Dsearch.table.maxStates (default 100,000) fall back to A*, unless
+// their table was already built into the cache.
+class GoalTableSearch extends SearchAlgorithm {
+    public GoalTableSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
+        super(initialState, goalState, printTime, printOpenList);
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        long startTime = System.currentTimeMillis();
+
+        int[] moveCosts = new int[BoardState.CODES];
+        for (int code = 0; code < BoardState.CODES; code++) {
+            moveCosts[code] = code == BoardState.EMPTY || code == BoardState.BLOCKED
+                    ? 0 : calculateMoveCostBall(BoardState.charOf(code));
+        }
+        GoalDistanceTable table = GoalDistanceTable.forGoal(goalState, moveCosts,
+                SearchConfig.goalTableDirectory(), SearchConfig.goalTableMaxStates());
+        if (table == null) {
+            if (listener != null) {
+                listener.message("Goal has too many arrangements for a distance table; using A*.");
+            }
+            AStarSearch fallback = new AStarSearch(initialState, goalState, printTime, false);
+            fallback.setListener(listener);
+            SearchResult result = fallback.search();
+            metrics.add(result.metrics);
+            return result;
+        }
+
+        int cost = table.cost(initialState);
+        int lookups = 1;
+        if (cost == GoalDistanceTable.UNREACHABLE) {
+            double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+            return new SearchResult("No Path", lookups, Integer.MAX_VALUE, totalTime);
+        }
+
+        // Follow the best moves; every step lowers the remaining cost, so this ends at the goal
+        BoardState board = new BoardState(initialState);
+        StringBuilder path = new StringBuilder();
+        for (short move = table.bestMove(board); move != NO_MOVE; move = table.bestMove(board)) {
+            board.applyMove(move >> 2, moveTarget(board, move));
+            lookups++;
+            metrics.expanded++;
+            if (path.length() > 0) {
+                path.append("--");
+            }
+            appendMove(path, board, move);
+        }
+
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        return new SearchResult(path.toString(), lookups, cost, totalTime);
+    }
+}
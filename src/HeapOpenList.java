@@ -0,0 +1,37 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+// Binary-heap open list; the order comes entirely from the comparator, f and g are ignored
+class HeapOpenList<T> implements OpenList<T> {
+    private final PriorityQueue<T> heap;
+
+    public HeapOpenList(Comparator<T> comparator) {
+        this.heap = new PriorityQueue<>(comparator);
+    }
+
+    @Override
+    public void add(T item, int f, int g) {
+        heap.add(item);
+    }
+
+    @Override
+    public T poll() {
+        return heap.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return heap.iterator();
+    }
+}
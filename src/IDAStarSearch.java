@@ -1,82 +1,121 @@
-import java.util.*;
+// Iterative deepening A* as a recursive depth-first engine on one mutable board (see InPlaceSearch),
+// so a steady-state expansion allocates nothing. A bounded transposition table (-Dsearch.tt.mb) cuts
+// off states reached again within an iteration at no lower g.
+class IDAStarSearch extends InPlaceSearch {
+    private static final int FOUND = -1;
+
+    private TranspositionTable table;  // Transpositions searched in the current iteration, or null
+    private int pathLength;
+    private int solutionCost;
 
-class IDAStarSearch extends SearchAlgorithm {
     public IDAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
         super(initialState, goalState, printTime, printOpenList);
     }
 
     @Override
-    public SearchResult search() {
+    protected SearchResult runSearch() {
         long startTime = System.currentTimeMillis();
-        int nodesCreated = 0;
+        resetBoard();
+        table = TranspositionTable.forState(board);
 
         // Initial threshold based on heuristic
-        int threshold = heuristic(initialState);
-
-        while (threshold != Integer.MAX_VALUE) {
-            int minF = Integer.MAX_VALUE;
+        int rootHeuristic = heuristic(board);
+        int threshold = rootHeuristic;
 
-            Deque<SearchNode> openList = new ArrayDeque<>();
-            SearchNode startNode = new SearchNode(initialState, null, 0, "");
-            openList.push(startNode);
+        while (true) {
+            int next = search(0, 0, rootHeuristic, threshold);
+            iterationCompleted(threshold);
+            if (listener != null && table != null) {
+                listener.message(table.toString());
+            }
+            if (next == FOUND) {
+                long endTime = System.currentTimeMillis();
+                double totalTime = (endTime - startTime) / 1000.0;
+                return new SearchResult(reconstructPath(pathMoves, pathLength), nodesCreatedForResult(),
+                        solutionCost, totalTime);
+            }
+            if (next == Integer.MAX_VALUE) {
+                break;
+            }
+            // Update threshold for the next iteration: the smallest f that exceeded this one
+            threshold = next;
+        }
 
-            while (!openList.isEmpty()) {
-                SearchNode current = openList.pop();
+        // No solution found
+        long endTime = System.currentTimeMillis();
+        double totalTime = (endTime - startTime) / 1000.0;
+        return new SearchResult("No Path", nodesCreatedForResult(), Integer.MAX_VALUE, totalTime);
+    }
 
-                // Generate successors
-                current.getSuccessorsStates();
-                current.successors.sort(Comparator.comparingInt(SearchNode::getTotalCost)); // Sort successors by f-cost
+    // Depth-first search below the current board. Returns FOUND with the moves in pathMoves,
+    // or the smallest f above the threshold (Integer.MAX_VALUE if the subtree is exhausted).
+    private int search(int depth, int pathCost, int heuristicCost, int threshold) {
+        int f = pathCost + heuristicCost;
+        if (f > threshold) {
+            return f;
+        }
+        if (heuristicCost == 0 && board.isGoalState(goalState)) {
+            pathLength = depth;
+            solutionCost = pathCost;
+            return FOUND;
+        }
+        if (listener != null) {
+            // The depth-first engines have no open list to show
+            listener.nodeExpanded(board, pathCost, heuristicCost);
+        }
 
-                for (SearchNode successor : current.successors) {
-                    // Path-based loop avoidance
-                    if (isInPath(current, openList)) {
-                        continue; // Skip this state if it is already in the current path
-                    }
+        int count = generateMoves(depth, pathCost, heuristicCost);
+        short[] moves = moveBuffers[depth];
+        int[] heuristics = heuristicBuffers[depth];
+        int[] totals = totalBuffers[depth];
 
-                    // Check if the current node exceeds the threshold
-                    int f = current.getTotalCost();
-                    if (f > threshold) {
-                        minF = Math.min(minF, f);
-                        continue; // Skip this node and track the smallest "f" exceeding the threshold
-                    }
+        int minF = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            // Moves are sorted by f, so the first one over the threshold ends the loop
+            if (totals[i] > threshold) {
+                nodesCreated += count - i;
+                minF = Math.min(minF, totals[i]);
+                break;
+            }
+            short move = moves[i];
+            int from = move >> 2;
+            int to = moveTarget(board, move);
+            int childCost = pathCost + costByCode[board.codeAt(from)];
 
-                    // Goal test
-                    if (current.state.isGoalState(goalState)) {
-                        long endTime = System.currentTimeMillis();
-                        double totalTime = (endTime - startTime) / 1000.0;
-                        return new SearchResult(reconstructPath(current), nodesCreated, current.pathCost, totalTime);
-                    }
-                    openList.push(successor);
-                    nodesCreated++;
-                }
+            board.applyMove(from, to);
+            // Path-based loop avoidance in one hash probe instead of a scan of the stack
+            if (path.get(board) != PackedStateMap.MISSING) {
+                metrics.duplicatesPruned++;
+                board.applyMove(to, from);
+                continue;
+            }
+            nodesCreated++;
 
-                // Print open list if required
-                if (printOpenList) {
-                    System.out.println("Open List:");
-                    for (SearchNode node : openList) {
-                        System.out.println(node);
-                    }
-                    System.out.println("---- End of Open List ----");
+            // A transposition already searched in this iteration with no more cost behind it has
+            // nothing new below it; reuse the f bound its subtree returned
+            int entry = table == null ? TranspositionTable.MISSING : table.find(board);
+            int result;
+            if (entry != TranspositionTable.MISSING && table.stamp(entry) == threshold && table.g(entry) <= childCost) {
+                int bound = table.bound(entry);
+                result = bound == Integer.MAX_VALUE ? bound : childCost + bound;
+                metrics.duplicatesPruned++;
+            } else {
+                path.putIfLower(board, childCost);
+                pathMoves[depth] = move;
+                result = search(depth + 1, childCost, heuristics[i], threshold);
+                path.remove(board);
+                if (table != null && result != FOUND) {
+                    table.store(board, childCost, result == Integer.MAX_VALUE ? result : result - childCost,
+                            threshold - childCost, threshold);
                 }
             }
 
-            // Update threshold for the next iteration
-            threshold = minF;
-        }
-
-        // No solution found
-        long endTime = System.currentTimeMillis();
-        double totalTime = (endTime - startTime) / 1000.0;
-        return new SearchResult("No Path", nodesCreated, Integer.MAX_VALUE, totalTime);
-    }
-
-    // Checks if the given node is already in the current path (to avoid loops).
-    private boolean isInPath(SearchNode node, Deque<SearchNode> stack) {
-        for (SearchNode n : stack) {
-            if (n.state.equals(node.state)) {
-                return true;
+            board.applyMove(to, from);
+            if (result == FOUND) {
+                return FOUND;
             }
+            minF = Math.min(minF, result);
         }
-        return false;
+        return minF;
     }
 }
@@ -0,0 +1,115 @@
+import java.util.Arrays;
+
+// Shared machinery for the depth-first engines that walk a single mutable board: moves are applied
+// in place and undone with the reverse move, h is updated from the moved ball's table entries, the
+// current path is kept in a primitive hash set, and per-depth move buffers are reused, so a
+// steady-state expansion allocates nothing.
+abstract class InPlaceSearch extends SearchAlgorithm {
+    protected final int[] costByCode = new int[BoardState.CODES];
+    protected PackedStateMap path;       // States on the current path -> g
+    protected BoardState board;          // The single board the search walks on
+    protected short[] pathMoves = new short[64];
+    protected short[][] moveBuffers = new short[0][];     // [depth][i]: moves sorted by the child's f
+    protected int[][] heuristicBuffers = new int[0][];    // [depth][i]: the child's h
+    protected int[][] totalBuffers = new int[0][];        // [depth][i]: the child's f
+    protected long nodesCreated;
+    private int maxMoves;                // Upper bound on moves from any state: 4 per blank
+    private int[] blanks = new int[0];   // Empty cells of the board being expanded
+
+    protected InPlaceSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
+        super(initialState, goalState, printTime, printOpenList);
+        for (int code = 0; code < BoardState.CODES; code++) {
+            costByCode[code] = code == BoardState.EMPTY || code == BoardState.BLOCKED
+                    ? 0 : calculateMoveCostBall(BoardState.charOf(code));
+        }
+    }
+
+    // Start a new search on a fresh copy of the initial state, with the root on the path
+    protected void resetBoard() {
+        rewindBoard();
+        blanks = new int[board.blankCount()]; // Moves never change the number of blanks
+        maxMoves = blanks.length * DIRECTIONS.length;
+        nodesCreated = 0;
+    }
+
+    // Put the board back on the initial state with only the root on the path, keeping the counters
+    protected void rewindBoard() {
+        board = new BoardState(initialState);
+        path = new PackedStateMap();
+        path.putIfLower(board, 0);
+    }
+
+    protected int nodesCreatedForResult() {
+        return (int) Math.min(nodesCreated, Integer.MAX_VALUE);
+    }
+
+    // Fill the buffers for this depth with the current board's moves, sorted by the child's f.
+    // Returns the number of moves.
+    protected int generateMoves(int depth, int pathCost, int heuristicCost) {
+        if (depth >= moveBuffers.length) {
+            growBuffers(depth + 1);
+        }
+        short[] moves = moveBuffers[depth];
+        int[] heuristics = heuristicBuffers[depth];
+        int[] totals = totalBuffers[depth];
+
+        StateCodec codec = board.codec;
+        int blankCount = board.blankCells(blanks);
+        int count = 0;
+        for (int b = 0; b < blankCount; b++) {
+            int cell = blanks[b];
+            // A ball moving in direction d lands here from the opposite neighbour
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int from = codec.neighbour(cell, d ^ 1);
+                int code = board.codeAt(from);
+                if (code == BoardState.EMPTY || code == BoardState.BLOCKED) {
+                    continue;
+                }
+
+                int childHeuristic;
+                if (patternDatabases != null) {
+                    board.applyMove(from, cell);
+                    childHeuristic = heuristic(board, goalDistances);
+                    board.applyMove(cell, from);
+                } else {
+                    int[] ballDistances = goalDistances[code];
+                    childHeuristic = heuristicCost - ballDistances[from] + ballDistances[cell];
+                }
+                int total = pathCost + costByCode[code] + childHeuristic;
+
+                // Insertion sort: at most four moves per blank
+                int i = count++;
+                while (i > 0 && totals[i - 1] > total) {
+                    moves[i] = moves[i - 1];
+                    heuristics[i] = heuristics[i - 1];
+                    totals[i] = totals[i - 1];
+                    i--;
+                }
+                moves[i] = encodeMove(from, d);
+                heuristics[i] = childHeuristic;
+                totals[i] = total;
+            }
+        }
+        metrics.expanded++;
+        metrics.generated += count;
+        metrics.heuristicCalls += count;
+        return count;
+    }
+
+    // Buffers up to the given depth; only happens the first time the search gets this deep
+    private void growBuffers(int minDepths) {
+        int depths = Math.max(minDepths, Math.max(16, moveBuffers.length * 2));
+        int old = moveBuffers.length;
+        moveBuffers = Arrays.copyOf(moveBuffers, depths);
+        heuristicBuffers = Arrays.copyOf(heuristicBuffers, depths);
+        totalBuffers = Arrays.copyOf(totalBuffers, depths);
+        for (int depth = old; depth < depths; depth++) {
+            moveBuffers[depth] = new short[maxMoves];
+            heuristicBuffers[depth] = new int[maxMoves];
+            totalBuffers[depth] = new int[maxMoves];
+        }
+        if (pathMoves.length < depths) {
+            pathMoves = Arrays.copyOf(pathMoves, depths);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+// Open list for best-first search engines: items are ordered by f, ties broken by g
+interface OpenList<T> extends Iterable<T> {
+    // Add an item with its f = g + h and g values
+    void add(T item, int f, int g);
+
+    // Remove and return the best item (null when empty)
+    T poll();
+
+    boolean isEmpty();
+
+    int size();
+}
@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+// Open-addressing map from a packed board state to an int (e.g. best g), with linear probing.
+// Keys are stored inline as 64-bit words, so lookups and inserts never box or allocate.
+class PackedStateMap {
+    static final int MISSING = Integer.MIN_VALUE; // Returned by get() for absent states; never stored
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int stride = -1;   // Key words per entry, fixed by the first state inserted
+    private long[] keys;       // capacity * stride words
+    private int[] values;      // MISSING marks an empty slot
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public PackedStateMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public PackedStateMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Value stored for the state, or MISSING
+    public int get(BoardState state) {
+        if (size == 0) {
+            return MISSING;
+        }
+        int slot = find(state);
+        return values[slot];
+    }
+
+    // Store value if the state is new or value is lower than the stored one, in a single probe.
+    // Returns true when the map changed (i.e. the caller found a new or cheaper path).
+    public boolean putIfLower(BoardState state, int value) {
+        if (stride < 0) {
+            initKeys(state.keyWords());
+        }
+        int slot = find(state);
+        int current = values[slot];
+        if (current != MISSING) {
+            if (value >= current) {
+                return false;
+            }
+            values[slot] = value;
+            return true;
+        }
+        int base = slot * stride;
+        for (int w = 0; w < stride; w++) {
+            keys[base + w] = state.keyWord(w);
+        }
+        values[slot] = value;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return true;
+    }
+
+    // Remove the state if present. Later entries of the probe run are shifted back into the gap,
+    // so lookups never need tombstones.
+    public boolean remove(BoardState state) {
+        if (size == 0) {
+            return false;
+        }
+        int slot = find(state);
+        if (values[slot] == MISSING) {
+            return false;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != MISSING; next = (next + 1) & mask) {
+            int home = hash(keys, next * stride) & mask;
+            // Move the entry back unless its home lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                System.arraycopy(keys, next * stride, keys, gap * stride, stride);
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = MISSING;
+        size--;
+        return true;
+    }
+
+    // Slot-level iteration: slots run from 0 to capacity() - 1, and occupied ones can be
+    // decoded into a board of the same layout
+    public int capacity() {
+        return values.length;
+    }
+
+    public boolean isOccupied(int slot) {
+        return values[slot] != MISSING;
+    }
+
+    public void loadKey(int slot, BoardState target) {
+        target.setKeyWords(keys, slot * stride);
+    }
+
+    // Approximate heap footprint of the table arrays
+    public long memoryBytes() {
+        return (keys == null ? 0 : 8L * keys.length) + 4L * values.length;
+    }
+
+    private void initKeys(int keyWords) {
+        stride = keyWords;
+        keys = new long[values.length * stride];
+    }
+
+    // Slot holding the state, or the empty slot where it would be inserted
+    private int find(BoardState state) {
+        int slot = hash(state) & mask;
+        while (values[slot] != MISSING && !keyEquals(slot, state)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(int slot, BoardState state) {
+        int base = slot * stride;
+        for (int w = 0; w < stride; w++) {
+            if (keys[base + w] != state.keyWord(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(BoardState state) {
+        long h = 0;
+        for (int w = 0; w < stride; w++) {
+            h = (h ^ state.keyWord(w)) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 29));
+    }
+
+    private int hash(long[] words, int base) {
+        long h = 0;
+        for (int w = 0; w < stride; w++) {
+            h = (h ^ words[base + w]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 29));
+    }
+
+    // Double the capacity and reinsert every entry
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int capacity = oldValues.length << 1;
+        keys = new long[capacity * stride];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+
+        for (int old = 0; old < oldValues.length; old++) {
+            if (oldValues[old] == MISSING) {
+                continue;
+            }
+            int slot = hash(oldKeys, old * stride) & mask;
+            while (values[slot] != MISSING) {
+                slot = (slot + 1) & mask;
+            }
+            System.arraycopy(oldKeys, old * stride, keys, slot * stride, stride);
+            values[slot] = oldValues[old];
+        }
+    }
+}
@@ -0,0 +1,251 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Hash-distributed parallel A* (HDA*): every state has an owner worker chosen by hashing the packed
+// board; each worker keeps its own open list and best-g table and ships successors it does not own
+// to their owners in batches through lock-free queues.
+class ParallelAStarSearch extends SearchAlgorithm {
+    private static final int BATCH_SIZE = 64;      // Successors buffered per destination before sending
+    private static final int FLUSH_INTERVAL = 32;  // Expansions between flushes of partial batches
+
+    private final int threads;
+    private Worker[] workers;
+
+    // Incumbent solution: the cheapest goal expanded so far. Its cost is read from the node, so the
+    // cost used for pruning and the path returned can never belong to different goals.
+    private final AtomicReference<SearchNode> bestGoal = new AtomicReference<>();
+
+    // Termination: active workers plus batches in flight; zero means no work is left anywhere
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean done;
+
+    public ParallelAStarSearch(BoardState initialState, BoardState goalState,
+                               boolean printTime, boolean printOpenList) {
+        this(initialState, goalState, printTime, printOpenList, SearchConfig.threads());
+    }
+
+    public ParallelAStarSearch(BoardState initialState, BoardState goalState,
+                               boolean printTime, boolean printOpenList, int threads) {
+        super(initialState, goalState, printTime, printOpenList);
+        this.threads = threads;
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        long startTime = System.currentTimeMillis();
+
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        // The root is the first batch in flight; all workers start idle
+        SearchNode startNode = new SearchNode(initialState, null, 0, NO_MOVE);
+        List<SearchNode> rootBatch = new ArrayList<>(1);
+        rootBatch.add(startNode);
+        pending.set(1);
+        workers[ownerOf(initialState)].inbox.add(rootBatch);
+
+        Thread[] pool = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            pool[i] = new Thread(workers[i], "pa-star-" + i);
+            pool[i].start();
+        }
+        for (Thread thread : pool) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                done = true;
+            }
+        }
+
+        int nodesCreated = 0;
+        for (Worker worker : workers) {
+            nodesCreated += worker.bestCosts.size();
+            metrics.add(worker.metrics);
+        }
+
+        long endTime = System.currentTimeMillis();
+        double totalTime = (endTime - startTime) / 1000.0;
+        SearchNode goalNode = bestGoal.get();
+        if (goalNode == null) {
+            return new SearchResult("No Path", nodesCreated, Integer.MAX_VALUE, totalTime);
+        }
+        return new SearchResult(reconstructPath(goalNode), nodesCreated, goalNode.pathCost, totalTime);
+    }
+
+    private int ownerOf(BoardState state) {
+        return (state.hashCode() & Integer.MAX_VALUE) % threads;
+    }
+
+    // Cost of the incumbent, or Integer.MAX_VALUE before one is found
+    private int bestCost() {
+        SearchNode goalNode = bestGoal.get();
+        return goalNode == null ? Integer.MAX_VALUE : goalNode.pathCost;
+    }
+
+    // Record a goal if it beats the incumbent
+    private void offerGoal(SearchNode goalNode) {
+        SearchNode current = bestGoal.get();
+        while (current == null || goalNode.pathCost < current.pathCost) {
+            if (bestGoal.compareAndSet(current, goalNode)) {
+                return;
+            }
+            current = bestGoal.get();
+        }
+    }
+
+    private class Worker implements Runnable {
+        final int id;
+        final Queue<List<SearchNode>> inbox = new ConcurrentLinkedQueue<>();
+        final OpenList<SearchNode> openList = new BucketOpenList<>();
+        final PackedStateMap bestCosts = new PackedStateMap(); // Only touched by this worker
+        final SearchMetrics metrics = new SearchMetrics();     // Likewise; merged when the search ends
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final List<SearchNode>[] outgoing = new List[threads];
+        boolean active; // Whether this worker currently holds a unit in 'pending'
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            int sinceFlush = 0;
+            int idleSpins = 0;
+
+            while (!done) {
+                if (drainInbox()) {
+                    idleSpins = 0;
+                }
+
+                SearchNode currentNode = active ? pollUseful() : null;
+                if (currentNode == null) {
+                    if (active) {
+                        // Out of useful work: hand remaining successors to their owners, then go idle
+                        flushAll();
+                        active = false;
+                        if (pending.decrementAndGet() == 0) {
+                            done = true;
+                        }
+                    }
+                    backOff(++idleSpins);
+                    continue;
+                }
+
+                expand(currentNode);
+                if (++sinceFlush >= FLUSH_INTERVAL) {
+                    flushAll();
+                    sinceFlush = 0;
+                }
+            }
+        }
+
+        // Move received batches into the open list; returns true if anything arrived
+        private boolean drainInbox() {
+            boolean received = false;
+            List<SearchNode> batch;
+            while ((batch = inbox.poll()) != null) {
+                if (active) {
+                    pending.decrementAndGet(); // Batch consumed by an already active worker
+                } else {
+                    active = true; // The batch's unit becomes this worker's unit
+                }
+                for (SearchNode node : batch) {
+                    insert(node);
+                }
+                received = true;
+            }
+            return received;
+        }
+
+        // Next node whose f can still beat the incumbent, skipping stale duplicates
+        private SearchNode pollUseful() {
+            SearchNode node;
+            while ((node = openList.poll()) != null) {
+                if (node.getTotalCost() >= bestCost()) {
+                    continue; // Cannot improve the incumbent
+                }
+                if (node.pathCost > bestCosts.get(node.state)) {
+                    continue; // A cheaper path to this state was found later
+                }
+                return node;
+            }
+            return null;
+        }
+
+        private void expand(SearchNode currentNode) {
+            if (currentNode.state.isGoalState(goalState)) {
+                offerGoal(currentNode);
+                return;
+            }
+
+            for (SearchNode successor : generateSuccessors(currentNode, goalDistances, metrics)) {
+                if (successor.getTotalCost() >= bestCost()) {
+                    continue;
+                }
+                int owner = ownerOf(successor.state);
+                if (owner == id) {
+                    insert(successor);
+                } else {
+                    send(owner, successor);
+                }
+            }
+
+            if (listener != null) {
+                listener.openListChanged("worker " + id, openList); // Listeners are thread-safe
+            }
+        }
+
+        private void insert(SearchNode node) {
+            if (bestCosts.putIfLower(node.state, node.pathCost)) {
+                openList.add(node, node.getTotalCost(), node.pathCost);
+                metrics.openSize(openList.size());
+            } else {
+                metrics.duplicatesPruned++;
+            }
+        }
+
+        private void send(int owner, SearchNode node) {
+            List<SearchNode> buffer = outgoing[owner];
+            if (buffer == null) {
+                buffer = new ArrayList<>(BATCH_SIZE);
+                outgoing[owner] = buffer;
+            }
+            buffer.add(node);
+            if (buffer.size() >= BATCH_SIZE) {
+                flush(owner);
+            }
+        }
+
+        private void flush(int owner) {
+            List<SearchNode> buffer = outgoing[owner];
+            if (buffer == null || buffer.isEmpty()) {
+                return;
+            }
+            outgoing[owner] = null;
+            pending.incrementAndGet(); // Count the batch before it becomes visible
+            workers[owner].inbox.add(buffer);
+        }
+
+        private void flushAll() {
+            for (int owner = 0; owner < threads; owner++) {
+                flush(owner);
+            }
+        }
+
+        private void backOff(int spins) {
+            if (spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Level-synchronous BFS: each frontier layer is cut into fixed-size chunks that are expanded in
+// parallel on a fork/join pool. Duplicates within a layer are resolved through a striped visited map
+// by generation rank (the position a successor would have had in a sequential sweep), so the next
+// layer, the returned path and nodesCreated do not depend on the number of threads.
+class ParallelBFSSearch extends SearchAlgorithm {
+    private static final int CHUNK_SIZE = 256; // Nodes per task; fixed so results never depend on thread count
+
+    private final int threads;
+
+    public ParallelBFSSearch(BoardState initialState, BoardState goalState,
+                             boolean printTime, boolean printOpenList) {
+        this(initialState, goalState, printTime, printOpenList, SearchConfig.threads());
+    }
+
+    public ParallelBFSSearch(BoardState initialState, BoardState goalState,
+                             boolean printTime, boolean printOpenList, int threads) {
+        super(initialState, goalState, printTime, printOpenList);
+        this.threads = threads;
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        long startTime = System.currentTimeMillis();
+
+        // Every state ever reached, mapped to its rank within the layer that first produced it
+        StripedStateMap visited = new StripedStateMap(threads);
+        SearchNode initialNode = new SearchNode(initialState, null, 0, NO_MOVE);
+        visited.putIfLower(initialState, 0);
+
+        List<SearchNode> layer = Collections.singletonList(initialNode);
+        SearchNode goalNode = initialState.isGoalState(goalState) ? initialNode : null;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (goalNode == null && !layer.isEmpty()) {
+                if (listener != null) {
+                    listener.openListChanged(null, layer);
+                }
+                LayerExpansion expansion = new LayerExpansion(layer, visited);
+                pool.invoke(ForkJoinTask.adapt(expansion));
+                layer = expansion.nextLayer();
+                goalNode = expansion.goalNode;
+                for (SearchMetrics chunkMetrics : expansion.chunkMetrics) {
+                    metrics.add(chunkMetrics);
+                }
+                metrics.openSize(layer.size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long endTime = System.currentTimeMillis();
+        int nodesCreated = visited.size();
+        if (goalNode == null) {
+            return new SearchResult("no path", nodesCreated, Double.POSITIVE_INFINITY, (endTime - startTime) / 1000.0);
+        }
+        return new SearchResult(reconstructPath(goalNode), nodesCreated, calculatePathCost(goalNode),
+                (endTime - startTime) / 1000.0);
+    }
+
+    // Expands one layer in three parallel passes over its chunks; runs inside the fork/join pool
+    private class LayerExpansion implements Runnable {
+        private final List<SearchNode> layer;
+        private final StripedStateMap visited;
+        private final List<List<SearchNode>> candidates; // Per chunk, successors not seen in earlier layers
+        private final int[] rankBase;                     // Global rank of each chunk's first candidate
+        private final SearchMetrics[] chunkMetrics;        // Counters of each chunk's task (no peak open size)
+        SearchNode goalNode;
+
+        LayerExpansion(List<SearchNode> layer, StripedStateMap visited) {
+            this.layer = layer;
+            this.visited = visited;
+            int chunks = (layer.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            this.candidates = new ArrayList<>(Collections.nCopies(chunks, null));
+            this.rankBase = new int[chunks];
+            this.chunkMetrics = new SearchMetrics[chunks];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                chunkMetrics[chunk] = new SearchMetrics();
+            }
+        }
+
+        @Override
+        public void run() {
+            int chunks = rankBase.length;
+
+            // Pass 1: generate successors, dropping states already visited in earlier layers
+            ForkJoinTask.invokeAll(chunkTasks(chunks, chunk -> {
+                int from = chunk * CHUNK_SIZE;
+                int to = Math.min(layer.size(), from + CHUNK_SIZE);
+                List<SearchNode> found = new ArrayList<>();
+                SearchMetrics counters = chunkMetrics[chunk];
+                for (int i = from; i < to; i++) {
+                    for (SearchNode successor : generateSuccessors(layer.get(i), goalDistances, counters)) {
+                        if (!visited.contains(successor.state)) {
+                            found.add(successor);
+                        } else {
+                            counters.duplicatesPruned++;
+                        }
+                    }
+                }
+                candidates.set(chunk, found);
+            }));
+
+            int rank = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                rankBase[chunk] = rank;
+                rank += candidates.get(chunk).size();
+            }
+
+            // Pass 2: claim each new state; the lowest generation rank wins regardless of timing
+            ForkJoinTask.invokeAll(chunkTasks(chunks, chunk -> {
+                List<SearchNode> found = candidates.get(chunk);
+                for (int i = 0; i < found.size(); i++) {
+                    visited.putIfLower(found.get(i).state, rankBase[chunk] + i);
+                }
+            }));
+
+            // Pass 3: keep only the winning copy of each state
+            ForkJoinTask.invokeAll(chunkTasks(chunks, chunk -> {
+                List<SearchNode> found = candidates.get(chunk);
+                List<SearchNode> kept = new ArrayList<>(found.size());
+                for (int i = 0; i < found.size(); i++) {
+                    if (visited.get(found.get(i).state) == rankBase[chunk] + i) {
+                        kept.add(found.get(i));
+                    } else {
+                        chunkMetrics[chunk].duplicatesPruned++;
+                    }
+                }
+                candidates.set(chunk, kept);
+            }));
+
+            for (List<SearchNode> kept : candidates) {
+                for (SearchNode node : kept) {
+                    if (node.state.isGoalState(goalState)) {
+                        goalNode = node;
+                        return;
+                    }
+                }
+            }
+        }
+
+        // Next layer: surviving successors in chunk order, i.e. the order a sequential sweep would produce
+        List<SearchNode> nextLayer() {
+            int size = 0;
+            for (List<SearchNode> kept : candidates) {
+                size += kept.size();
+            }
+            List<SearchNode> next = new ArrayList<>(size);
+            for (List<SearchNode> kept : candidates) {
+                next.addAll(kept);
+            }
+            return next;
+        }
+    }
+
+    private interface ChunkBody {
+        void run(int chunk);
+    }
+
+    private static List<ForkJoinTask<?>> chunkTasks(int chunks, ChunkBody body) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> body.run(index)));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,333 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Additive pattern database for one ball color. The abstraction keeps the positions of that color's
+// balls and of the blanks, and treats every other ball as an anonymous "other" piece whose moves are
+// free. Each entry is the minimum number of pattern-ball moves to reach the goal arrangement.
+// Summing cost(color) * entry over all colors is admissible, because each real move is counted in
+// exactly one database.
+//
+// The table is built once per goal with a backward breadth-first sweep and cached as a flat byte file.
+// Later runs, and other JVMs on the same host, map that file read-only and share its pages.
+class PatternDatabase {
+    private static final int BLANK = 0;
+    private static final int PATTERN = 1;
+    private static final int OTHER = 2;
+
+    private static final int MAGIC = 0x50444231; // "PDB1"
+    private static final int UNSEEN = 0xFF;
+    private static final int MAX_STORED = 0xFE;
+    private static final long[][] BINOMIAL = binomials(64);
+
+    private final int color;           // BoardState cell code of the pattern balls
+    private final int[] freeCells;     // Board cells that are not blocked, in rank order
+    private final int[] freeIndex;     // Board cell -> position in freeCells, -1 for blocked cells
+    private final int[] neighbours;    // [free position * 4 + direction] -> neighbouring free position or -1
+    private final int patternCount;
+    private final int blankCount;
+    private final int otherCount;
+    private final long size;
+    private ByteBuffer entries;        // Mapped from the cache file
+
+    private PatternDatabase(BoardState goal, int color) {
+        this.color = color;
+        int cells = goal.rows * goal.cols;
+        int free = 0;
+        freeIndex = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            freeIndex[cell] = goal.codeAt(cell) == BoardState.BLOCKED ? -1 : free++;
+        }
+        freeCells = new int[free];
+        int patterns = 0;
+        int blanks = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (freeIndex[cell] < 0) {
+                continue;
+            }
+            freeCells[freeIndex[cell]] = cell;
+            int symbol = symbolOf(goal.codeAt(cell));
+            if (symbol == PATTERN) {
+                patterns++;
+            } else if (symbol == BLANK) {
+                blanks++;
+            }
+        }
+        patternCount = patterns;
+        blankCount = blanks;
+        otherCount = free - patterns - blanks;
+        size = free > 64 ? Long.MAX_VALUE : multinomial(free, patternCount, blankCount);
+
+        neighbours = new int[free * 4];
+        for (int position = 0; position < free; position++) {
+            int row = freeCells[position] / goal.cols;
+            int col = freeCells[position] % goal.cols;
+            for (int d = 0; d < 4; d++) {
+                int newRow = (row + SearchAlgorithm.DIRECTIONS[d][0] + goal.rows) % goal.rows;
+                int newCol = (col + SearchAlgorithm.DIRECTIONS[d][1] + goal.cols) % goal.cols;
+                neighbours[position * 4 + d] = freeIndex[newRow * goal.cols + newCol];
+            }
+        }
+    }
+
+    // Databases for every color in the goal, or null if some color's table would be too large to store
+    static PatternDatabase[] forGoal(BoardState goal, Path directory) {
+        boolean[] present = new boolean[BoardState.CODES];
+        int cells = goal.rows * goal.cols;
+        for (int cell = 0; cell < cells; cell++) {
+            int code = goal.codeAt(cell);
+            if (code != BoardState.EMPTY && code != BoardState.BLOCKED) {
+                present[code] = true;
+            }
+        }
+
+        int colors = 0;
+        for (boolean p : present) {
+            colors += p ? 1 : 0;
+        }
+        PatternDatabase[] databases = new PatternDatabase[colors];
+        int next = 0;
+        for (int code = 0; code < present.length; code++) {
+            if (!present[code]) {
+                continue;
+            }
+            PatternDatabase database = new PatternDatabase(goal, code);
+            if (database.size > Integer.MAX_VALUE) {
+                return null;
+            }
+            try {
+                database.load(goal, directory);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot build pattern database in " + directory + ": " + e.getMessage(), e);
+            }
+            databases[next++] = database;
+        }
+        return databases;
+    }
+
+    // Cost-weighted pattern-move lower bound for this color
+    int heuristic(BoardState state, int moveCost) {
+        return moveCost * (entries.get((int) rank(state)) & 0xFF);
+    }
+
+    int color() {
+        return color;
+    }
+
+    private int symbolOf(int code) {
+        if (code == color) {
+            return PATTERN;
+        }
+        return code == BoardState.EMPTY ? BLANK : OTHER;
+    }
+
+    // Lexicographic rank of the abstract arrangement among all arrangements with the same counts
+    private long rank(BoardState state) {
+        int[] remaining = {blankCount, patternCount, otherCount};
+        int free = freeCells.length;
+        long rank = 0;
+        for (int position = 0; position < free; position++) {
+            int symbol = symbolOf(state.codeAt(freeCells[position]));
+            for (int smaller = 0; smaller < symbol; smaller++) {
+                if (remaining[smaller] > 0) {
+                    remaining[smaller]--;
+                    rank += multinomial(free - position - 1, remaining[PATTERN], remaining[BLANK]);
+                    remaining[smaller]++;
+                }
+            }
+            remaining[symbol]--;
+        }
+        return rank;
+    }
+
+    private long rank(int[] symbols) {
+        int[] remaining = {blankCount, patternCount, otherCount};
+        int free = symbols.length;
+        long rank = 0;
+        for (int position = 0; position < free; position++) {
+            int symbol = symbols[position];
+            for (int smaller = 0; smaller < symbol; smaller++) {
+                if (remaining[smaller] > 0) {
+                    remaining[smaller]--;
+                    rank += multinomial(free - position - 1, remaining[PATTERN], remaining[BLANK]);
+                    remaining[smaller]++;
+                }
+            }
+            remaining[symbol]--;
+        }
+        return rank;
+    }
+
+    private void unrank(long rank, int[] symbols) {
+        int[] remaining = {blankCount, patternCount, otherCount};
+        int free = symbols.length;
+        for (int position = 0; position < free; position++) {
+            for (int symbol = 0; symbol < 3; symbol++) {
+                if (remaining[symbol] == 0) {
+                    continue;
+                }
+                remaining[symbol]--;
+                long block = multinomial(free - position - 1, remaining[PATTERN], remaining[BLANK]);
+                if (rank < block) {
+                    symbols[position] = symbol;
+                    break;
+                }
+                rank -= block;
+                remaining[symbol]++;
+            }
+        }
+    }
+
+    // Number of arrangements of n cells holding the given pattern and blank counts (the rest "other"),
+    // or Long.MAX_VALUE if that does not fit in a long
+    private static long multinomial(int n, int patterns, int blanks) {
+        if (patterns < 0 || blanks < 0 || patterns + blanks > n) {
+            return 0;
+        }
+        try {
+            return Math.multiplyExact(BINOMIAL[n][patterns], BINOMIAL[n - patterns][blanks]);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long[][] binomials(int max) {
+        long[][] table = new long[max + 1][max + 1];
+        for (int n = 0; n <= max; n++) {
+            table[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                table[n][k] = table[n - 1][k - 1] + table[n - 1][k];
+            }
+        }
+        return table;
+    }
+
+    // Backward sweep from the goal arrangement, level by level in pattern-ball moves.
+    // Moves of "other" balls are free, so each level is first closed under them.
+    private byte[] build(BoardState goal) {
+        byte[] distances = new byte[(int) size];
+        Arrays.fill(distances, (byte) UNSEEN);
+
+        int[] symbols = new int[freeCells.length];
+        for (int position = 0; position < freeCells.length; position++) {
+            symbols[position] = symbolOf(goal.codeAt(freeCells[position]));
+        }
+        int goalRank = (int) rank(symbols);
+        distances[goalRank] = 0;
+
+        IntStack level = new IntStack();
+        level.push(goalRank);
+        for (int moves = 0; level.size > 0; moves++) {
+            int stored = Math.min(moves + 1, MAX_STORED);
+
+            // Free moves: everything reachable by moving "other" balls stays at this level
+            for (int i = 0; i < level.size; i++) {
+                expand(level.items[i], symbols, OTHER, distances, (byte) Math.min(moves, MAX_STORED), level);
+            }
+
+            IntStack next = new IntStack();
+            for (int i = 0; i < level.size; i++) {
+                expand(level.items[i], symbols, PATTERN, distances, (byte) stored, next);
+            }
+            level = next;
+        }
+        return distances;
+    }
+
+    // Push every unseen arrangement reached by sliding a ball of the given kind into a blank
+    private void expand(int rank, int[] symbols, int mover, byte[] distances, byte value, IntStack out) {
+        unrank(rank, symbols);
+        for (int position = 0; position < symbols.length; position++) {
+            if (symbols[position] != BLANK) {
+                continue;
+            }
+            for (int d = 0; d < 4; d++) {
+                int from = neighbours[position * 4 + d];
+                if (from < 0 || symbols[from] != mover) {
+                    continue;
+                }
+                symbols[position] = mover;
+                symbols[from] = BLANK;
+                int child = (int) rank(symbols);
+                symbols[from] = mover;
+                symbols[position] = BLANK;
+                if ((distances[child] & 0xFF) == UNSEEN) {
+                    distances[child] = value;
+                    out.push(child);
+                }
+            }
+        }
+    }
+
+    // Map the cached table for this goal, building and writing it first if it is missing or stale
+    private void load(BoardState goal, Path directory) throws IOException {
+        byte[] header = header(goal);
+        Path file = directory.resolve(String.format("pdb-%dx%d-%c-%08x.bin",
+                goal.rows, goal.cols, BoardState.charOf(color), Arrays.hashCode(header)));
+
+        if (!matchesHeader(file, header)) {
+            byte[] distances = build(goal);
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "pdb", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(header);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer = ByteBuffer.wrap(distances);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, header.length, size);
+            entries = mapped;
+        }
+    }
+
+    // Magic, dimensions, color, entry count and the goal's abstract arrangement
+    private byte[] header(BoardState goal) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 4 + 8 + freeCells.length * 2);
+        buffer.putInt(MAGIC).putInt(goal.rows).putInt(goal.cols).putInt(color).putLong(size);
+        for (int position = 0; position < freeCells.length; position++) {
+            buffer.put((byte) freeCells[position]);
+            buffer.put((byte) symbolOf(goal.codeAt(freeCells[position])));
+        }
+        return buffer.array();
+    }
+
+    private boolean matchesHeader(Path file, byte[] header) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != header.length + size) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer stored = ByteBuffer.allocate(header.length);
+            while (stored.hasRemaining() && channel.read(stored) >= 0) {
+                // Keep reading until the header is complete
+            }
+            return Arrays.equals(stored.array(), header);
+        }
+    }
+
+    // Growable int stack used as a BFS level
+    private static final class IntStack {
+        int[] items = new int[64];
+        int size;
+
+        void push(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+// Fixed-size table for SMA*: packed state -> the lowest g it was reached at and the packed key of the
+// parent that reached it there. Memory is allocated once, for a fixed number of entries, so the table
+// is lossy. Each bucket has two entries; a new state replaces the dearer of the two (an entry with lower
+// g prunes more), and a state already present is updated in place.
+class ReachedStateTable {
+    static final int MISSING = -1; // Returned by find() for absent states
+
+    private static final int EMPTY = Integer.MIN_VALUE; // g of an unused entry
+
+    private final int stride;      // Key words per state
+    private final long[] keys;     // Per entry: the state's key, then its parent's
+    private final int[] costs;     // g per entry
+    private final int bucketMask;
+
+    // Table of at most the given number of entries (and at least two) for boards with the given packed
+    // key width; takes bytesPerEntry(keyWords) per entry
+    ReachedStateTable(long entries, int keyWords) {
+        this.stride = keyWords;
+        long buckets = Long.highestOneBit(Math.max(1, entries / 2));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / (4 * keyWords)));
+        this.bucketMask = (int) buckets - 1;
+        this.keys = new long[(int) buckets * 2 * 2 * stride];
+        this.costs = new int[(int) buckets * 2];
+        Arrays.fill(costs, EMPTY);
+    }
+
+    // Two keys and a g
+    static int bytesPerEntry(int keyWords) {
+        return 16 * keyWords + 4;
+    }
+
+    // Entry holding the state, or MISSING
+    int find(BoardState state) {
+        int entry = (hash(state) & bucketMask) << 1;
+        if (matches(entry, 0, state)) {
+            return entry;
+        }
+        return matches(++entry, 0, state) ? entry : MISSING;
+    }
+
+    int g(int entry) {
+        return costs[entry];
+    }
+
+    // Whether the entry's state was reached from the given parent
+    boolean reachedFrom(int entry, BoardState parent) {
+        return matches(entry, stride, parent);
+    }
+
+    // Record that the state was reached at g from the parent
+    void store(BoardState state, BoardState parent, int g) {
+        int entry = find(state);
+        if (entry == MISSING) {
+            int first = (hash(state) & bucketMask) << 1;
+            entry = costs[first] == EMPTY || costs[first + 1] != EMPTY && costs[first] >= costs[first + 1]
+                    ? first : first + 1;
+        }
+        int base = entry * 2 * stride;
+        for (int w = 0; w < stride; w++) {
+            keys[base + w] = state.keyWord(w);
+            keys[base + stride + w] = parent.keyWord(w);
+        }
+        costs[entry] = g;
+    }
+
+    // Whether the entry holds the board's key at the given offset (0: the state, stride: its parent)
+    private boolean matches(int entry, int offset, BoardState state) {
+        if (costs[entry] == EMPTY) {
+            return false;
+        }
+        int base = entry * 2 * stride + offset;
+        for (int w = 0; w < stride; w++) {
+            if (keys[base + w] != state.keyWord(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(BoardState state) {
+        long h = 0;
+        for (int w = 0; w < stride; w++) {
+            h = (h ^ state.keyWord(w)) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 29));
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.Comparator;
+import java.util.TreeSet;
+
+// Simplified memory-bounded A* (SMA*, Russell 1992) with a node budget (-Dsearch.sma.nodes, or
+// -Dsearch.sma.mb converted at BYTES_PER_NODE). Nodes are expanded best-f first as in A*, but once
+// more than the budget are in memory the worst leaf (highest f, shallowest) is dropped and its f is
+// kept in its parent as a "forgotten" bound. A parent with forgotten children goes back to the open
+// set at that bound and regenerates them if it becomes the best node again. Every f is the largest
+// lower bound seen for its subtree (pathmax on generation, minimum over children on backup), so the
+// first goal selected is optimal whenever the optimal path fits in the budget.
+//
+// Memory holds a tree: a state may appear under several parents. A transposition table with at most
+// one entry per budgeted node prunes copies reached at no lower g than an earlier copy through another
+// parent; its entries are part of BYTES_PER_NODE, so it grows and shrinks with the budget.
+class SMAStarSearch extends SearchAlgorithm {
+    // Node, its board and child list, its open and leaf set entries and a table entry (one-word keys)
+    static final int BYTES_PER_NODE = 240 + ReachedStateTable.bytesPerEntry(1);
+
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final long budget;
+    private long nextId;
+    private long liveNodes;
+    private long forgotten;
+
+    // Ordered by f, then deepest first: first() is the next node to expand and last() the first to drop
+    private static final Comparator<Node> ORDER = Comparator
+            .comparingInt((Node node) -> node.f)
+            .thenComparing(Comparator.comparingInt((Node node) -> node.depth).reversed())
+            .thenComparing(Comparator.comparingLong((Node node) -> node.id).reversed());
+
+    // Open set: unexpanded leaves and expanded nodes with forgotten children
+    private final TreeSet<Node> open = new TreeSet<>(ORDER);
+    // The droppable part of the open set: nodes without children in memory, except the root
+    private final TreeSet<Node> leaves = new TreeSet<>(ORDER);
+
+    // Best g seen per state and the parent that reached it (bounded and lossy)
+    private ReachedStateTable table;
+
+    public SMAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
+        this(initialState, goalState, printTime, printOpenList, SearchConfig.smaNodeBudget());
+    }
+
+    public SMAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList,
+                         long budget) {
+        super(initialState, goalState, printTime, printOpenList);
+        this.budget = Math.max(2, budget);
+    }
+
+    // Search node with its backed-up f and the bound of the children dropped from memory
+    private class Node extends SearchNode {
+        final long id = nextId++;
+        final int depth;
+        int f;
+        int forgottenF = INFINITE;  // Smallest f among dropped children
+        boolean expanded;
+
+        Node(SearchNode source, Node parent) {
+            super(source.state, parent, source.pathCost, source.move, source.heuristicCost);
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        boolean hasChild(BoardState state) {
+            for (SearchNode child : successors) {
+                if (child.state.equals(state)) return true;
+            }
+            return false;
+        }
+
+        Node parentNode() {
+            return (Node) parent;
+        }
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        long startTime = System.currentTimeMillis();
+        open.clear();
+        leaves.clear();
+        table = new ReachedStateTable(budget, initialState.keyWords());
+        liveNodes = 0;
+        forgotten = 0;
+
+        Node root = new Node(new SearchNode(initialState, null, 0, NO_MOVE), null);
+        root.f = root.getTotalCost();
+        add(root);
+        int nodesCreated = 1;
+
+        Node goalNode = null;
+        while (!open.isEmpty()) {
+            Node best = open.first();
+            if (best.f == INFINITE) {
+                break; // Nothing left within the budget's reach
+            }
+            if (best.state.isGoalState(goalState)) {
+                goalNode = best;
+                break;
+            }
+
+            dequeue(best);
+            long firstChild = nextId;
+            best.expanded = true;
+            best.forgottenF = INFINITE; // Every successor not in memory is regenerated below
+            for (SearchNode successor : generateSuccessors(best)) {
+                if (onPath(best, successor.state) || best.hasChild(successor.state) || isDominated(successor)) {
+                    metrics.duplicatesPruned++;
+                    continue;
+                }
+                Node child = new Node(successor, best);
+                // A path that cannot fit in the budget is useless unless it ends here
+                boolean tooDeep = child.depth >= budget - 1 && !child.state.isGoalState(goalState);
+                child.f = tooDeep ? INFINITE : Math.max(best.f, child.getTotalCost());
+                best.successors.add(child);
+                add(child);
+                nodesCreated++;
+            }
+            if (best.successors.isEmpty()) {
+                // Dead end (or every successor is kept elsewhere at no higher g): droppable at f = infinity
+                enqueue(best);
+            }
+            backUp(best);
+
+            // Keep the successors just generated if anything else can go, so the search moves forward
+            while (liveNodes > budget && (dropWorstLeaf(firstChild) || dropWorstLeaf(Long.MAX_VALUE))) {
+                forgotten++;
+            }
+            metrics.openSize(open.size());
+
+            if (listener != null) {
+                listener.openListChanged(null, open);
+            }
+        }
+
+        if (listener != null) {
+            listener.message("SMA*: " + forgotten + " nodes dropped with a budget of " + budget);
+        }
+        double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
+        if (goalNode == null) {
+            return new SearchResult("No Path", nodesCreated, Integer.MAX_VALUE, totalTime);
+        }
+        return new SearchResult(reconstructPath(goalNode), nodesCreated, goalNode.pathCost, totalTime);
+    }
+
+    // Whether the state was already reached at no higher g through another parent. That copy's
+    // subtree, or the forgotten bound that replaced it, covers every path through this one, so
+    // skipping it keeps f a lower bound. The table remembers which parent reached a state, so a
+    // parent regenerating its own dropped child is never mistaken for a transposition.
+    private boolean isDominated(SearchNode successor) {
+        BoardState parent = successor.parent.state;
+        int entry = table.find(successor.state);
+        if (entry != ReachedStateTable.MISSING && table.g(entry) <= successor.pathCost) {
+            return table.g(entry) < successor.pathCost || !table.reachedFrom(entry, parent);
+        }
+        table.store(successor.state, parent, successor.pathCost);
+        return false;
+    }
+
+    // Tree search: only repeats of an ancestor (cycles) or of a sibling are ruled out outright
+    private static boolean onPath(Node node, BoardState state) {
+        for (; node != null; node = node.parentNode()) {
+            if (node.state.equals(state)) return true;
+        }
+        return false;
+    }
+
+    private void add(Node node) {
+        enqueue(node);
+        liveNodes++;
+    }
+
+    // Put a node in the open set, and in the leaf set if it has no children in memory. A node's f
+    // and children only change while it is out of both sets, so their order stays valid.
+    private void enqueue(Node node) {
+        open.add(node);
+        if (node.parent != null && node.successors.isEmpty()) {
+            leaves.add(node);
+        }
+    }
+
+    // Take a node out of the open and leaf sets; returns whether it was open
+    private boolean dequeue(Node node) {
+        leaves.remove(node);
+        return open.remove(node);
+    }
+
+    // After an expansion or a drop, raise f of the node and its ancestors to the smallest f among
+    // their children in memory and the forgotten ones, for as long as that changes anything
+    private void backUp(Node node) {
+        while (node != null && node.expanded) {
+            int f = node.forgottenF;
+            for (SearchNode child : node.successors) {
+                f = Math.min(f, ((Node) child).f);
+            }
+            if (f <= node.f) {
+                return;
+            }
+            boolean queued = dequeue(node);
+            node.f = f;
+            if (queued) {
+                enqueue(node);
+            }
+            node = node.parentNode();
+        }
+    }
+
+    // Drop the leaf with the highest f (shallowest first) among those older than keepFrom, never the
+    // root. Returns false if there is none. Only the successors of the last expansion are skipped, so
+    // this takes logarithmic time in the number of leaves.
+    private boolean dropWorstLeaf(long keepFrom) {
+        for (Node leaf : leaves.descendingSet()) {
+            if (leaf.id >= keepFrom) {
+                continue;
+            }
+            Node parent = leaf.parentNode();
+            dequeue(leaf);
+            liveNodes--;
+
+            // The parent remembers the dropped subtree's bound and becomes expandable again (a leaf
+            // once its last child is gone); its own f, the minimum over children and forgotten
+            // bounds, does not change
+            dequeue(parent);
+            parent.successors.remove(leaf);
+            parent.forgottenF = Math.min(parent.forgottenF, leaf.f);
+            enqueue(parent);
+            return true;
+        }
+        return false;
+    }
+}
@@ -5,17 +5,90 @@ abstract class SearchAlgorithm {
     protected BoardState initialState;
     protected BoardState goalState;
     protected boolean printTime;
-    protected boolean printOpenList;
+    protected SearchListener listener;      // Progress callbacks, or null (the default) for none
+    protected SearchMetrics metrics = new SearchMetrics(); // Counters of the current (or last) search
+    protected final int[][] goalDistances; // [cell code][cell]: cost-weighted distance to the nearest goal, built once per search
+    protected final PatternDatabase[] patternDatabases; // Goal pattern databases when configured, otherwise null
+    private SearchIterationEvent iterationEvent;  // Open iteration event while JFR records them, else null
+    private long iterationStartExpanded;
 
     public SearchAlgorithm(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
         this.initialState = initialState;
         this.goalState = goalState;
         this.printTime = printTime;
-        this.printOpenList = printOpenList;
+        this.listener = printOpenList ? new ConsoleSearchListener(true, false) : null;
+        this.goalDistances = buildDistanceTable(goalState);
+        this.patternDatabases = SearchConfig.usePatternDatabases()
+                ? PatternDatabase.forGoal(goalState, SearchConfig.patternDatabaseDirectory())
+                : null;
     }
 
-    // Abstract method to be implemented by each specific algorithm
-    public abstract SearchResult search();
+    void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Run the search with fresh metrics, attach them to the result and emit the JFR event
+    public final SearchResult search() {
+        metrics = new SearchMetrics();
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        startIteration();
+        long startTime = System.nanoTime();
+
+        SearchResult result = runSearch();
+
+        metrics.elapsedNanos = System.nanoTime() - startTime;
+        result.metrics = metrics;
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = getClass().getSimpleName();
+            event.cost = result.cost;
+            event.nodesCreated = result.nodesCreated;
+            event.expanded = metrics.expanded;
+            event.generated = metrics.generated;
+            event.duplicatesPruned = metrics.duplicatesPruned;
+            event.peakOpenSize = metrics.peakOpenSize;
+            event.iterations = metrics.iterations;
+            event.heuristicCalls = metrics.heuristicCalls;
+            event.commit();
+        }
+        return result;
+    }
+
+    // The search itself, implemented by each specific algorithm
+    protected abstract SearchResult runSearch();
+
+    // Called by the iterative algorithms after each iteration with its f threshold or depth limit
+    protected void iterationCompleted(int bound) {
+        iterationCompleted(bound, ConsoleSearchListener.iterationText(bound));
+    }
+
+    // Likewise, with the line the "with open" output prints for it
+    protected void iterationCompleted(int bound, String text) {
+        metrics.iterations++;
+        if (iterationEvent != null) {
+            iterationEvent.end();
+            if (iterationEvent.shouldCommit()) {
+                iterationEvent.algorithm = getClass().getSimpleName();
+                iterationEvent.bound = bound;
+                iterationEvent.expanded = metrics.expanded - iterationStartExpanded;
+                iterationEvent.commit();
+            }
+        }
+        if (listener != null) {
+            listener.iterationCompleted(bound, text);
+        }
+        startIteration();
+    }
+
+    private void startIteration() {
+        SearchIterationEvent event = new SearchIterationEvent();
+        iterationEvent = event.isEnabled() ? event : null;
+        if (iterationEvent != null) {
+            iterationEvent.begin();
+        }
+        iterationStartExpanded = metrics.expanded;
+    }
 
     // Inner class to represent search nodes
     protected class SearchNode {
@@ -23,17 +96,22 @@ abstract class SearchAlgorithm {
         SearchNode parent;      // Reference to the parent node
         int pathCost;        // g(n): Cost to reach this node from the start
         int heuristicCost;   // h(n): Estimated cost to reach the goal
-        String path;            // The move/action that led to this state
+        short move;             // Encoded move that led to this state (NO_MOVE for the root)
         List<SearchNode> successors;
         boolean markedOut;
 
         // Constructor with heuristic
-        SearchNode(BoardState state, SearchNode parent, int pathCost, String path) {
+        SearchNode(BoardState state, SearchNode parent, int pathCost, short move) {
+            this(state, parent, pathCost, move, heuristic(state));
+        }
+
+        // Constructor for successors whose heuristic was already derived from the parent's
+        SearchNode(BoardState state, SearchNode parent, int pathCost, short move, int heuristicCost) {
             this.state = state;
             this.parent = parent;
             this.pathCost = pathCost;
-            this.heuristicCost = heuristic(state);
-            this.path = path;
+            this.heuristicCost = heuristicCost;
+            this.move = move;
             this.successors = new ArrayList<>();
             this.markedOut = false;
         }
@@ -45,24 +123,21 @@ abstract class SearchAlgorithm {
 
         @Override
         public int hashCode() {
-            return Arrays.deepHashCode(state.board);
+            return state.hashCode();
         }
 
         @Override
         public boolean equals(Object obj) {
             if (this == obj) return true;
             if (obj == null || getClass() != obj.getClass()) return false;
-            BoardState other = (BoardState) obj;
-            return Arrays.deepEquals(state.board, other.board);
+            SearchNode other = (SearchNode) obj;
+            return state.equals(other.state);
         }
 
 
         @Override
         public String toString() {
-            return state.toString() +
-                    "Path Cost (g): " + pathCost + "\n" +
-                    "Heuristic Cost (h): " + heuristicCost + "\n" +
-                    "Total Cost (f): " + getTotalCost() + "\n";
+            return describeNode(state, pathCost, heuristicCost);
         }
 
         protected boolean isMarkedOut() {
@@ -74,70 +149,7 @@ abstract class SearchAlgorithm {
         }
 
         public void getSuccessorsStates() {
-            // Preallocate list with a reasonable initial capacity
-            List<SearchNode> successors = new ArrayList<>();
-            BoardState currentState = this.state;
-
-            // Cache frequently used values to reduce repeated access
-            char[][] board = currentState.board;
-            int rows = currentState.rows;
-            int cols = currentState.cols;
-
-            // Preallocate directions array to avoid repeated allocation
-            int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-
-            // Reusable StringBuilder for move descriptions to reduce object creation
-            StringBuilder moveDescriptionBuilder = new StringBuilder(20);
-
-            // Iterate through all cells to find movable balls
-            for (int i = 0; i < rows; i++) {
-                for (int j = 0; j < cols; j++) {
-                    char ball = board[i][j];
-
-                    // Quick bitwise check for skipping empty or black cells
-                    if (ball == '_' || ball == 'X') {
-                        continue;
-                    }
-
-                    // Process each direction
-                    for (int[] dir : directions) {
-                        // Use bitwise modulo for potentially faster calculation
-                        int newRow = (i + dir[0] + rows) % rows;
-                        int newCol = (j + dir[1] + cols) % cols;
-
-                        // Check if destination is empty
-                        if (board[newRow][newCol] == '_') {
-                            // Create new board state with move
-                            BoardState newState = new BoardState(currentState);
-
-                            // Swap ball positions
-                            newState.board[newRow][newCol] = ball;
-                            newState.board[i][j] = '_';
-
-                            // Calculate move cost based on ball color (using lookup table for potential further optimization)
-                            int moveCost = calculateMoveCostBall(ball);
-
-                            // Efficiently construct move description
-                            moveDescriptionBuilder.setLength(0);
-                            moveDescriptionBuilder
-                                    .append('(').append(i + 1).append(',').append(j + 1)
-                                    .append("):").append(ball)
-                                    .append(":(").append(newRow + 1).append(',').append(newCol + 1)
-                                    .append(')');
-
-                            // Efficiently construct path
-                            String newPath = this.path.isEmpty()
-                                    ? moveDescriptionBuilder.toString()
-                                    : this.path + "--" + moveDescriptionBuilder.toString();
-
-                            // Create successor node
-                            SearchNode successor = new SearchNode(newState, this, this.pathCost + moveCost, newPath);
-
-                            successors.add(successor);
-                        }
-                    }
-                }
-            }
+            List<SearchNode> successors = generateSuccessors(this);
 
             // Sort the successors list by total cost (pathCost + heuristicCost)
             successors.sort(Comparator.comparingInt(SearchNode::getTotalCost));
@@ -145,135 +157,179 @@ abstract class SearchAlgorithm {
         }
     }
 
+    // Board followed by g, h and f, as printed for open list entries
+    static String describeNode(BoardState state, int pathCost, int heuristicCost) {
+        return state.toString() +
+                "Path Cost (g): " + pathCost + "\n" +
+                "Heuristic Cost (h): " + heuristicCost + "\n" +
+                "Total Cost (f): " + (pathCost + heuristicCost) + "\n";
+    }
+
     // Calculate move cost based on ball color
     protected int calculateMoveCost(SearchNode currentNode,SearchNode  successor) {
         // Identify the color of the marble being moved
         char ball = identifyMovedMarble(currentNode.state, successor.state);
 
-        switch (ball) {
-            case 'B': return 1;  // Blue ball
-            case 'G': return 3;  // Green ball
-            case 'R': return 10; // Red ball
-            default: return 0;
-        }
+        return calculateMoveCostBall(ball);
     }
 
     protected char identifyMovedMarble(BoardState from, BoardState to) {
-        for (int i = 0; i < from.board.length; i++) {
-            for (int j = 0; j < from.board[i].length; j++) {
-                if (from.board[i][j] != to.board[i][j]) {
-                    return from.board[i][j] != '_' ? from.board[i][j] : to.board[i][j];
+        for (int i = 0; i < from.rows; i++) {
+            for (int j = 0; j < from.cols; j++) {
+                char before = from.cellAt(i, j);
+                char after = to.cellAt(i, j);
+                if (before != after) {
+                    return before != '_' ? before : after;
                 }
             }
         }
         return '_';
     }
 
-    // Reconstruct path from goal node to initial state
-    protected String reconstructPath(SearchNode goalNode) {
-        return goalNode.path;
+    // Move codes pack the from-cell index and a direction: (fromCell << 2) | direction, in a short,
+    // so boards may have at most MAX_CELLS cells (checked by Ex1.isValidBoardState)
+    protected static final short NO_MOVE = -1;
+    static final int MAX_CELLS = (Short.MAX_VALUE >> 2) + 1;
+    protected static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    protected static short encodeMove(int fromCell, int direction) {
+        return (short) ((fromCell << 2) | direction);
     }
 
-    // Calculate total path cost
-    protected double calculatePathCost(SearchNode goalNode) {
-        return goalNode.pathCost;
+    // Reconstruct path from goal node to initial state; the move text is only built here, once
+    protected String reconstructPath(SearchNode goalNode) {
+        Deque<SearchNode> pathNodes = new ArrayDeque<>();
+        for (SearchNode current = goalNode; current != null && current.move != NO_MOVE; current = current.parent) {
+            pathNodes.push(current);
+        }
+
+        StringBuilder path = new StringBuilder(pathNodes.size() * 16);
+        for (SearchNode node : pathNodes) {
+            if (path.length() > 0) {
+                path.append("--");
+            }
+            appendMove(path, node.state, node.move);
+        }
+        return path.toString();
     }
 
-    // Convert board state to string for efficient comparison
-    protected String boardToString(BoardState state) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < state.rows; i++) {
-            for (int j = 0; j < state.cols; j++) {
-                sb.append(state.board[i][j]);
+    // Path for the first 'length' moves of a move stack, replayed from the initial state
+    // (used by the depth-first engines, which keep moves instead of nodes)
+    protected String reconstructPath(short[] moves, int length) {
+        BoardState board = new BoardState(initialState);
+        StringBuilder path = new StringBuilder(length * 16);
+        for (int i = 0; i < length; i++) {
+            board.applyMove(moves[i] >> 2, moveTarget(board, moves[i]));
+            if (path.length() > 0) {
+                path.append("--");
             }
+            appendMove(path, board, moves[i]);
         }
-        return sb.toString();
+        return path.toString();
     }
 
-    // Print open list contents for debugging
-    protected void printOpenListContents(Queue<SearchNode> openList) {
-        System.out.println("Open List Contents:");
-        for (SearchNode node : openList) {
-            System.out.println("Board State:");
-            for (int i = 0; i < node.state.rows; i++) {
-                for (int j = 0; j < node.state.cols; j++) {
-                    System.out.print(node.state.board[i][j] + " ");
-                }
-                System.out.println();
+    // Path through a meeting state: forward moves up to forwardMeet, then the backward search's
+    // moves (from backwardMeet towards the goal) replayed in reverse
+    protected String reconstructBidirectionalPath(SearchNode forwardMeet, SearchNode backwardMeet) {
+        StringBuilder path = new StringBuilder(reconstructPath(forwardMeet));
+        for (SearchNode node = backwardMeet; node != null && node.move != NO_MOVE; node = node.parent) {
+            if (path.length() > 0) {
+                path.append("--");
             }
-            System.out.println("Path Cost: " + node.pathCost);
-            System.out.println("---");
+            appendReversedMove(path, node.state, node.move);
         }
+        return path.toString();
+    }
+
+    // Append "(r,c):B:(r,c)" for a move; the ball is read from the state the move produced
+    protected void appendMove(StringBuilder sb, BoardState after, short move) {
+        int fromCell = move >> 2;
+        int toCell = moveTarget(after, move);
+        appendMoveText(sb, after, fromCell, after.codeAt(toCell), toCell);
+    }
+
+    // Append the move that undoes 'move', i.e. the ball slides back from its target to its origin
+    protected void appendReversedMove(StringBuilder sb, BoardState after, short move) {
+        int fromCell = move >> 2;
+        int toCell = moveTarget(after, move);
+        appendMoveText(sb, after, toCell, after.codeAt(toCell), fromCell);
+    }
+
+    // Cell a move's ball lands on
+    protected int moveTarget(BoardState board, short move) {
+        return board.codec.neighbour(move >> 2, move & 3);
+    }
+
+    private void appendMoveText(StringBuilder sb, BoardState board, int fromCell, int ballCode, int toCell) {
+        int cols = board.cols;
+        sb.append('(').append(fromCell / cols + 1).append(',').append(fromCell % cols + 1)
+                .append("):").append(BoardState.charOf(ballCode))
+                .append(":(").append(toCell / cols + 1).append(',').append(toCell % cols + 1)
+                .append(')');
+    }
+
+    // Calculate total path cost
+    protected double calculatePathCost(SearchNode goalNode) {
+        return goalNode.pathCost;
     }
 
     // Generate all possible successor states
     protected List<SearchNode> generateSuccessors(SearchNode currentNode) {
-        // Preallocate list with a reasonable initial capacity
-        List<SearchNode> successors = new ArrayList<>();
-        BoardState currentState = currentNode.state;
+        return generateSuccessors(currentNode, goalDistances, metrics);
+    }
 
-        // Cache frequently used values to reduce repeated access
-        char[][] board = currentState.board;
-        int rows = currentState.rows;
-        int cols = currentState.cols;
-
-        // Preallocate directions array to avoid repeated allocation
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-
-        // Reusable StringBuilder for move descriptions to reduce object creation
-        StringBuilder moveDescriptionBuilder = new StringBuilder(20);
-
-        // Iterate through all cells to find movable balls
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                char ball = board[i][j];
-
-                // Quick bitwise check for skipping empty or black cells
-                if ((ball == '_') | (ball == 'X')) continue;
-
-                // Process each direction
-                for (int[] dir : directions) {
-                    // Use bitwise modulo for potentially faster calculation
-                    int newRow = (i + dir[0] + rows) % rows;
-                    int newCol = (j + dir[1] + cols) % cols;
-
-                    // Check if destination is empty
-                    if (board[newRow][newCol] == '_') {
-                        // Create new board state with move
-                        BoardState newState = new BoardState(currentState);
-
-                        // Swap ball positions
-                        newState.board[newRow][newCol] = ball;
-                        newState.board[i][j] = '_';
-
-                        // Calculate move cost based on ball color (using lookup table for potential further optimization)
-                        int moveCost = calculateMoveCostBall(ball);
-
-                        // Efficiently construct move description
-                        moveDescriptionBuilder.setLength(0);
-                        moveDescriptionBuilder
-                                .append('(').append(i + 1).append(',').append(j + 1)
-                                .append("):").append(ball)
-                                .append(":(").append(newRow + 1).append(',').append(newCol + 1)
-                                .append(')');
-
-                        // Efficiently construct path
-                        String newPath = currentNode.path.isEmpty()
-                                ? moveDescriptionBuilder.toString()
-                                : currentNode.path + "--" + moveDescriptionBuilder.toString();
-
-                        // Create successor node
-                        SearchNode successor = new SearchNode(
-                                newState,
-                                currentNode,
-                                currentNode.pathCost + moveCost,
-                                newPath);
-
-                        successors.add(successor);
-                    }
+    protected List<SearchNode> generateSuccessors(SearchNode currentNode, int[][] distances) {
+        return generateSuccessors(currentNode, distances, metrics);
+    }
+
+    // Successors with h measured against the target whose distance table is given
+    // (the goal for forward search, the initial state for a backward search), counted in the given
+    // metrics (parallel workers pass their own)
+    protected List<SearchNode> generateSuccessors(SearchNode currentNode, int[][] distances, SearchMetrics counters) {
+        BoardState currentState = currentNode.state;
+        StateCodec codec = currentState.codec;
+
+        // Only balls next to a blank can move: look at the blanks' neighbours instead of every cell.
+        // A ball moving in direction d lands on a blank from the blank's neighbour in direction d ^ 1.
+        int[] blanks = currentState.blankCells();
+        short[] moves = new short[blanks.length * DIRECTIONS.length];
+        int count = 0;
+        for (int blank : blanks) {
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int from = codec.neighbour(blank, d ^ 1);
+                int code = currentState.codeAt(from);
+                if (code != BoardState.EMPTY && code != BoardState.BLOCKED) {
+                    moves[count++] = encodeMove(from, d);
                 }
             }
         }
+        // Same order as a row-major scan of the balls: by moving cell, then direction
+        Arrays.sort(moves, 0, count);
+
+        List<SearchNode> successors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = moves[i] >> 2;
+            int to = codec.neighbour(from, moves[i] & 3);
+            char ball = BoardState.charOf(currentState.codeAt(from));
+
+            // Create new board state with the ball moved into the empty cell
+            BoardState newState = new BoardState(currentState);
+            newState.applyMove(from, to);
+
+            int moveCost = calculateMoveCostBall(ball);
+
+            // Only the moved ball's term changes, unless pattern databases need a full lookup
+            int newHeuristic = usesPatternDatabases(distances)
+                    ? heuristic(newState, distances)
+                    : heuristicAfterMove(distances, currentNode.heuristicCost, ball, from, to);
+
+            // Create successor node; it keeps only the move code, the path text is built for the solution
+            successors.add(new SearchNode(newState, currentNode, currentNode.pathCost + moveCost, moves[i],
+                    newHeuristic));
+        }
+        counters.expanded++;
+        counters.generated += successors.size();
+        counters.heuristicCalls += successors.size();
         return successors;
     }
 
@@ -283,44 +339,74 @@ abstract class SearchAlgorithm {
         MOVE_COST_LOOKUP['B'] = 1;  // Blue ball
         MOVE_COST_LOOKUP['G'] = 3;  // Green ball
         MOVE_COST_LOOKUP['R'] = 10; // Red ball
+        // Extra colors for larger boards: 1 per move unless overridden, e.g. -Dsearch.cost.Y=5
+        for (char ball : new char[]{'Y', 'O', 'P'}) {
+            MOVE_COST_LOOKUP[ball] = Integer.getInteger("search.cost." + ball, 1);
+        }
     }
 
     protected int calculateMoveCostBall(char ball) {
         return MOVE_COST_LOOKUP[ball];
     }
 
+    // Sum of table loads; empty and blocked cells have all-zero rows. Counted here, since this form is
+    // only used for single evaluations (e.g. roots); generateSuccessors counts its own.
     protected int heuristic(BoardState currentState) {
-        int totalDistance = 0;
+        metrics.heuristicCalls++;
+        return heuristic(currentState, goalDistances);
+    }
 
-        if (currentState.equals(goalState)) {
-            return 0;
+    protected int heuristic(BoardState currentState, int[][] distances) {
+        if (usesPatternDatabases(distances)) {
+            int total = 0;
+            for (PatternDatabase database : patternDatabases) {
+                total += database.heuristic(currentState, calculateMoveCostBall(BoardState.charOf(database.color())));
+            }
+            return total;
         }
 
-        // Pre-compute goal positions for efficient lookup
-        Map<Character, List<int[]>> goalPositions = precomputeGoalPositions(goalState.board);
+        int totalDistance = 0;
+        int cells = currentState.rows * currentState.cols;
+        for (int cell = 0; cell < cells; cell++) {
+            totalDistance += distances[currentState.codeAt(cell)][cell];
+        }
+        return totalDistance;
+    }
 
-        int rows = currentState.board.length;
-        int cols = currentState.board[0].length;
+    // Pattern databases are built for the goal only; other targets keep the distance tables
+    protected boolean usesPatternDatabases(int[][] distances) {
+        return patternDatabases != null && distances == goalDistances;
+    }
 
-        for (int i = 0; i < currentState.board.length; i++) {
-            for (int j = 0; j < currentState.board[i].length; j++) {
-                char ball = currentState.board[i][j];
-                if (ball != '_' && ball != 'X') {
-                    // Find the minimum distance to any goal for this ball
+    // h(child) from h(parent): a move only changes the moved ball's term
+    protected int heuristicAfterMove(int[][] distances, int parentHeuristic, char ball, int fromCell, int toCell) {
+        int[] ballDistances = distances[BoardState.codeOf(ball)];
+        return parentHeuristic - ballDistances[fromCell] + ballDistances[toCell];
+    }
+
+    // Build the (cell code, cell) -> cost-weighted minimum distance table for the given target board
+    protected int[][] buildDistanceTable(BoardState target) {
+        Map<Character, List<int[]>> targetPositions = precomputeGoalPositions(target);
+        int rows = target.rows;
+        int cols = target.cols;
+        int[][] table = new int[BoardState.CODES][rows * cols];
+
+        for (Map.Entry<Character, List<int[]>> entry : targetPositions.entrySet()) {
+            char ball = entry.getKey();
+            int[] distances = table[BoardState.codeOf(ball)];
+            int cost = calculateMoveCostBall(ball);
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
                     int minDistance = Integer.MAX_VALUE;
-                    for (int[] goal : goalPositions.getOrDefault(ball, Collections.emptyList())) {
-                        int distance = calculateCircularManhattanDistance(i, j, goal[0], goal[1], rows, cols);
-                        minDistance = Math.min(minDistance, distance);
+                    for (int[] goal : entry.getValue()) {
+                        minDistance = Math.min(minDistance, calculateCircularManhattanDistance(i, j, goal[0], goal[1], rows, cols));
                     }
-
-                    // Multiply the distance by the ball's move cost
-                    int cost = calculateMoveCostBall(ball);
-                    totalDistance += (minDistance * cost);
+                    distances[i * cols + j] = minDistance * cost;
                 }
             }
         }
-
-        return totalDistance;
+        // Colors with no target cell keep an all-zero row (such inputs are rejected by validation)
+        return table;
     }
 
     // Circular Manhattan distance calculation
@@ -332,12 +418,12 @@ abstract class SearchAlgorithm {
     }
 
     // Precompute goal positions for faster lookup
-    protected Map<Character, List<int[]>> precomputeGoalPositions(char[][] goalBoard) {
+    protected Map<Character, List<int[]>> precomputeGoalPositions(BoardState goalBoard) {
         Map<Character, List<int[]>> goalPositions = new HashMap<>();
 
-        for (int i = 0; i < goalBoard.length; i++) {
-            for (int j = 0; j < goalBoard[i].length; j++) {
-                char ball = goalBoard[i][j];
+        for (int i = 0; i < goalBoard.rows; i++) {
+            for (int j = 0; j < goalBoard.cols; j++) {
+                char ball = goalBoard.cellAt(i, j);
                 if (ball != '_' && ball != 'X') {
                     goalPositions.computeIfAbsent(ball, k -> new ArrayList<>()).add(new int[]{i, j});
                 }
@@ -0,0 +1,100 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Tuning knobs that are not part of the input file format, read from JVM system properties
+// (e.g. java -Dsearch.threads=8 Ex1)
+final class SearchConfig {
+    private SearchConfig() {
+    }
+
+    // Worker threads for the parallel algorithms (default: all available cores)
+    static int threads() {
+        return Math.max(1, Integer.getInteger("search.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    // Problems solved at once in batch mode (default: all available cores)
+    static int batchThreads() {
+        return Math.max(1, Integer.getInteger("search.batch.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    // Heuristic used by SearchAlgorithm.heuristic(): "manhattan" (default) or "pdb" for pattern databases
+    static boolean usePatternDatabases() {
+        return "pdb".equalsIgnoreCase(System.getProperty("search.heuristic", "manhattan"));
+    }
+
+    // Where pattern database files are cached between runs
+    static Path patternDatabaseDirectory() {
+        return Paths.get(System.getProperty("search.pdb.dir", "pdb-cache"));
+    }
+
+    // Memory cap of the transposition table used by IDA* and DFBnB, in MB (0 disables it)
+    static int transpositionTableMegabytes() {
+        return Math.max(0, Integer.getInteger("search.tt.mb", 32));
+    }
+
+    // Node budget of SMA*: -Dsearch.sma.nodes if set, otherwise -Dsearch.sma.mb (default 256) divided
+    // by the estimated footprint of a node
+    static long smaNodeBudget() {
+        long nodes = Long.getLong("search.sma.nodes", 0);
+        if (nodes > 0) {
+            return nodes;
+        }
+        return ((long) Math.max(1, Integer.getInteger("search.sma.mb", 256)) << 20) / SMAStarSearch.BYTES_PER_NODE;
+    }
+
+    // Heuristic weight of weighted A* and the starting weight of ARA*: solutions cost at most this
+    // many times the optimum (default 1.5, at least 1)
+    static double epsilon() {
+        return Math.max(1.0, Double.parseDouble(System.getProperty("search.epsilon", "1.5")));
+    }
+
+    // How much ARA* lowers its weight after each solution (default 0.1)
+    static double epsilonStep() {
+        return Math.max(0.01, Double.parseDouble(System.getProperty("search.epsilon.step", "0.1")));
+    }
+
+    // Time weighted A* and ARA* spend improving their first solution, in milliseconds (default 1000;
+    // 0 stops at the first solution)
+    static long anytimeMillis() {
+        return Math.max(0, Long.getLong("search.anytime.ms", 1000));
+    }
+
+    // Memory budget for the cutoff frontiers DFID keeps between iterations, in MB (0: always re-expand)
+    static int dfidFrontierMegabytes() {
+        return Math.max(0, Integer.getInteger("search.dfid.frontier.mb", 64));
+    }
+
+    // Where external BFS creates the temporary directory for its layer files
+    static Path externalBfsDirectory() {
+        return Paths.get(System.getProperty("search.ebfs.dir", System.getProperty("java.io.tmpdir")));
+    }
+
+    // Sort buffer of external BFS in MB; successors beyond it are spilled to disk as sorted runs
+    static int externalBfsBufferMegabytes() {
+        return Math.max(1, Integer.getInteger("search.ebfs.mb", 64));
+    }
+
+    // Where exhaustive goal distance tables are cached between runs
+    static Path goalTableDirectory() {
+        return Paths.get(System.getProperty("search.table.dir", "table-cache"));
+    }
+
+    // With "with open", write the open list trace to this binary file (".gz" to compress) instead of
+    // standard output; null (the default) prints it as text. See TraceWriter and TraceDecoder.
+    static Path traceFile() {
+        String file = System.getProperty("search.trace");
+        return file == null || file.isEmpty() ? null : Paths.get(file);
+    }
+
+    // Print each search's metrics (expansions, duplicates pruned, ...) to standard error
+    static boolean printMetrics() {
+        return Boolean.getBoolean("search.metrics");
+    }
+
+    // Largest number of arrangements a goal distance table is built for (6 bytes each). The default
+    // covers 3x3 boards and similar small layouts, whose tables build in well under a second; larger
+    // goals are searched with A* unless their table is already in the cache.
+    static long goalTableMaxStates() {
+        return Long.getLong("search.table.maxStates", 100_000L);
+    }
+}
@@ -0,0 +1,41 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event spanning one search() call, with its metrics. Record with e.g.
+//   java -XX:StartFlightRecording=filename=search.jfr Ex1
+// and inspect with `jfr print --events ex1.Search search.jfr` or JDK Mission Control.
+@Name("ex1.Search")
+@Label("Search")
+@Category("Ex1")
+@Description("One search() call and its metrics")
+class SearchEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Cost")
+    double cost;
+
+    @Label("Nodes Created")
+    int nodesCreated;
+
+    @Label("Expanded")
+    long expanded;
+
+    @Label("Generated")
+    long generated;
+
+    @Label("Duplicates Pruned")
+    long duplicatesPruned;
+
+    @Label("Peak Open Size")
+    long peakOpenSize;
+
+    @Label("Iterations")
+    long iterations;
+
+    @Label("Heuristic Calls")
+    long heuristicCalls;
+}
@@ -0,0 +1,21 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event spanning one iteration of IDA* (f threshold) or DFID (depth limit)
+@Name("ex1.SearchIteration")
+@Label("Search Iteration")
+@Category("Ex1")
+@Description("One iteration of an iterative deepening search")
+class SearchIterationEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Bound")
+    int bound;
+
+    @Label("Expanded")
+    long expanded;
+}
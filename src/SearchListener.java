@@ -0,0 +1,74 @@
+// Callbacks for following a search while it runs (see SearchAlgorithm.setListener). Every method has
+// an empty default, so a listener only overrides what it needs. With no listener attached the
+// engines skip the calls altogether. The parallel algorithms may call it from worker threads.
+interface SearchListener {
+    // A node is about to be expanded
+    default void nodeExpanded(BoardState state, int pathCost, int heuristicCost) {
+    }
+
+    // Open list (or frontier layer) after an expansion; label names it when an algorithm keeps
+    // several (e.g. "forward"), otherwise null
+    default void openListChanged(String label, Iterable<? extends SearchAlgorithm.SearchNode> openList) {
+    }
+
+    // An iteration of IDA* or DFID finished; bound is its f threshold or depth limit, and text the
+    // algorithm's own line for it (e.g. "Depth Limit 3 completed.")
+    default void iterationCompleted(int bound, String text) {
+    }
+
+    // An anytime algorithm found a solution cheaper than its previous one
+    default void solutionImproved(String solution, int cost, double runtime) {
+    }
+
+    // An anytime algorithm proved its solution of the given cost at most bound times the optimum
+    default void boundImproved(int cost, double bound, double runtime) {
+    }
+
+    // Free-form progress note, e.g. transposition table statistics
+    default void message(String text) {
+    }
+
+    // Listener that forwards every callback to both listeners; either may be null
+    static SearchListener combine(SearchListener first, SearchListener second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return new SearchListener() {
+            @Override
+            public void nodeExpanded(BoardState state, int pathCost, int heuristicCost) {
+                first.nodeExpanded(state, pathCost, heuristicCost);
+                second.nodeExpanded(state, pathCost, heuristicCost);
+            }
+
+            @Override
+            public void openListChanged(String label, Iterable<? extends SearchAlgorithm.SearchNode> openList) {
+                first.openListChanged(label, openList);
+                second.openListChanged(label, openList);
+            }
+
+            @Override
+            public void iterationCompleted(int bound, String text) {
+                first.iterationCompleted(bound, text);
+                second.iterationCompleted(bound, text);
+            }
+
+            @Override
+            public void solutionImproved(String solution, int cost, double runtime) {
+                first.solutionImproved(solution, cost, runtime);
+                second.solutionImproved(solution, cost, runtime);
+            }
+
+            @Override
+            public void boundImproved(int cost, double bound, double runtime) {
+                first.boundImproved(cost, bound, runtime);
+                second.boundImproved(cost, bound, runtime);
+            }
+
+            @Override
+            public void message(String text) {
+                first.message(text);
+                second.message(text);
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+// Counters every algorithm reports through (see SearchAlgorithm.search()). Plain fields, so counting
+// is a field increment; a metrics object is only ever updated by one thread (the parallel
+// algorithms keep one per worker and merge them at the end).
+class SearchMetrics {
+    long expanded;          // Nodes whose successors were generated
+    long generated;         // Successors generated
+    long duplicatesPruned;  // Successors dropped as already seen (closed list, best g, path or transposition)
+    long peakOpenSize;      // Largest open list or frontier; 0 for the depth-first engines, which keep none
+    long iterations;        // Completed iterations: f thresholds (IDA*, BFHS), depth limits (DFID) or layers (EBFS)
+    long heuristicCalls;    // Heuristic evaluations, full or derived from the parent's h
+    long elapsedNanos;      // Wall time of the search
+
+    void openSize(long size) {
+        if (size > peakOpenSize) {
+            peakOpenSize = size;
+        }
+    }
+
+    double expansionsPerSecond() {
+        return elapsedNanos == 0 ? 0 : expanded * 1e9 / elapsedNanos;
+    }
+
+    // Fold in the counters of another search or worker. Their open lists coexist, so the peaks add up.
+    void add(SearchMetrics other) {
+        expanded += other.expanded;
+        generated += other.generated;
+        duplicatesPruned += other.duplicatesPruned;
+        peakOpenSize += other.peakOpenSize;
+        iterations += other.iterations;
+        heuristicCalls += other.heuristicCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "expanded: " + expanded + ", generated: " + generated + ", duplicates pruned: " + duplicatesPruned
+                + ", peak open: " + peakOpenSize + ", iterations: " + iterations
+                + ", heuristic calls: " + heuristicCalls
+                + ", expansions/s: " + String.format("%.0f", expansionsPerSecond());
+    }
+}
@@ -0,0 +1,18 @@
+// Helper class to pass search parameters
+class SearchParameters {
+    String algorithmName;
+    BoardState initialState;
+    BoardState goalState;
+    boolean printTime;
+    boolean printOpenList;
+
+    public SearchParameters(String algorithmName, BoardState initialState,
+                            BoardState goalState, boolean printTime,
+                            boolean printOpenList) {
+        this.algorithmName = algorithmName;
+        this.initialState = initialState;
+        this.goalState = goalState;
+        this.printTime = printTime;
+        this.printOpenList = printOpenList;
+    }
+}
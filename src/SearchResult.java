@@ -4,6 +4,8 @@ class SearchResult {
     int nodesCreated;
     double cost;
     double runtime;
+    double suboptimalityBound = Double.NaN; // Proven cost / optimal cost; NaN unless the search proves one
+    SearchMetrics metrics = new SearchMetrics(); // Filled in by SearchAlgorithm.search()
 
     public SearchResult(String solution, int nodesCreated, double cost, double runtime) {
         this.solution = solution;
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// A file of packed states (BoardState.keyWord words per record) in ascending order without repeats,
+// as written by ExternalBFSSearch for its layers and sorted runs. Files are written sequentially
+// through a direct buffer and read back through read-only memory-mapped windows, so records never
+// pass through the heap on their way in or out. Records compare word by word as signed longs.
+final class SortedStateFile {
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final long WINDOW_BYTES = 64L << 20; // Mapped at a time when reading
+
+    final Path file;
+    final int words;
+    final long count;
+
+    private SortedStateFile(Path file, int words, long count) {
+        this.file = file;
+        this.words = words;
+        this.count = count;
+    }
+
+    // Writes records in the order given; the caller keeps them sorted and unique
+    static final class Writer implements AutoCloseable {
+        private final Path file;
+        private final int words;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.nativeOrder());
+        private long count;
+
+        Writer(Path file, int words) throws IOException {
+            this.file = file;
+            this.words = words;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void append(long[] record, int base) throws IOException {
+            for (int w = 0; w < words; w++) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                buffer.putLong(record[base + w]);
+            }
+            count++;
+        }
+
+        // The finished file, once close() has run
+        SortedStateFile finish() throws IOException {
+            close();
+            return new SortedStateFile(file, words, count);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                flush();
+                channel.close();
+            }
+        }
+    }
+
+    // Sequential reader: advance() loads the next record into current
+    static final class Cursor {
+        final long[] current;
+        private final FileChannel channel;  // null for records already in memory
+        private final int words;
+        private final long count;
+        private LongBuffer window;
+        private long next;                  // Index of the record advance() loads
+        private long windowEnd;             // Index of the first record past the window
+
+        private Cursor(FileChannel channel, LongBuffer records, int words, long count) {
+            this.channel = channel;
+            this.window = records;
+            this.words = words;
+            this.count = count;
+            this.windowEnd = records == null ? 0 : count;
+            this.current = new long[words];
+        }
+
+        // Cursor over the first count records of an array, e.g. the last run of a layer, which is
+        // merged without being written out
+        static Cursor inMemory(long[] records, int count, int words) {
+            return new Cursor(null, LongBuffer.wrap(records, 0, count * words), words, count);
+        }
+
+        boolean advance() throws IOException {
+            if (next == count) {
+                close();
+                return false;
+            }
+            if (next == windowEnd) {
+                long recordBytes = (long) words * Long.BYTES;
+                long records = Math.min(count - next, Math.max(1, WINDOW_BYTES / recordBytes));
+                window = channel.map(FileChannel.MapMode.READ_ONLY, next * recordBytes, records * recordBytes)
+                        .order(ByteOrder.nativeOrder()).asLongBuffer();
+                windowEnd = next + records;
+            }
+            window.get(current);
+            next++;
+            return true;
+        }
+
+        // Mappings stay valid after the channel is closed and are released with the buffer
+        void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    Cursor cursor() throws IOException {
+        return new Cursor(FileChannel.open(file, StandardOpenOption.READ), null, words, count);
+    }
+
+    // Binary search for one record with positional reads; used for the few lookups of path recovery
+    boolean contains(long[] key) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(words * Long.BYTES).order(ByteOrder.nativeOrder());
+        long[] probe = new long[words];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long low = 0;
+            long high = count - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                record.clear();
+                long position = middle * words * Long.BYTES;
+                while (record.hasRemaining() && channel.read(record, position + record.position()) >= 0) {
+                    // Keep reading until the record is complete
+                }
+                record.flip();
+                record.asLongBuffer().get(probe);
+                int order = compare(probe, 0, key, 0, words);
+                if (order == 0) {
+                    return true;
+                } else if (order < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+        }
+        return false;
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    static int compare(long[] a, int aBase, long[] b, int bBase, int words) {
+        for (int w = 0; w < words; w++) {
+            int order = Long.compare(a[aBase + w], b[bBase + w]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    // Sort the first count records of an array and drop repeats; returns the number left
+    static int sortUnique(long[] records, int count, int words) {
+        if (words == 1) {
+            Arrays.sort(records, 0, count);
+        } else {
+            quicksort(records, 0, count - 1, words, new long[words]);
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (kept == 0 || compare(records, (kept - 1) * words, records, i * words, words) != 0) {
+                System.arraycopy(records, i * words, records, kept * words, words);
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    // Hoare quicksort over records of several words; recurses into the smaller side only
+    private static void quicksort(long[] records, int low, int high, int words, long[] pivot) {
+        while (low < high) {
+            System.arraycopy(records, ((low + high) >>> 1) * words, pivot, 0, words);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(records, i * words, pivot, 0, words) < 0) i++;
+                while (compare(records, j * words, pivot, 0, words) > 0) j--;
+                if (i <= j) {
+                    swap(records, i++, j--, words);
+                }
+            }
+            if (j - low < high - i) {
+                quicksort(records, low, j, words, pivot);
+                low = i;
+            } else {
+                quicksort(records, i, high, words, pivot);
+                high = j;
+            }
+        }
+    }
+
+    private static void swap(long[] records, int i, int j, int words) {
+        for (int w = 0; w < words; w++) {
+            long word = records[i * words + w];
+            records[i * words + w] = records[j * words + w];
+            records[j * words + w] = word;
+        }
+    }
+}
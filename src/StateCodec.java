@@ -0,0 +1,119 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Packing scheme shared by every BoardState of one board layout (dimensions, blocked cells and the
+// widest cell code in use). Blocked cells never change, so only the free cells are stored, with just
+// enough bits per cell for the codes that occur. The layout is the tightest one that fits:
+// a single long, two longs, or a packed byte array.
+final class StateCodec {
+    enum Layout { ONE_LONG, TWO_LONGS, BYTES }
+
+    private static final Map<StateCodec, StateCodec> CANONICAL = new ConcurrentHashMap<>();
+
+    final int rows;
+    final int cols;
+    final int cells;
+    final int[] positions;   // Board cell -> position among the free cells, -1 for blocked cells
+    final int[] freeCells;   // Position -> board cell
+    final int bitsPerCell;
+    final int cellMask;
+    final int cellsPerLong;
+    final Layout layout;
+    final int byteCount;     // Length of the byte array in the BYTES layout
+    final int[] neighbours;  // cell * 4 + d -> the cell one step from it in SearchAlgorithm.DIRECTIONS[d]
+    final long[] fieldLowBits; // Per key word: the lowest bit of every cell field it holds
+
+    private StateCodec(int rows, int cols, boolean[] blocked, int maxCode) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = rows * cols;
+        this.positions = new int[cells];
+        int free = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            positions[cell] = blocked[cell] ? -1 : free++;
+        }
+        this.freeCells = new int[free];
+        for (int cell = 0; cell < cells; cell++) {
+            if (positions[cell] >= 0) {
+                freeCells[positions[cell]] = cell;
+            }
+        }
+
+        int bits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maxCode));
+        if (free <= Long.SIZE / bits) {
+            layout = Layout.ONE_LONG;
+        } else if (free <= 2 * (Long.SIZE / bits)) {
+            layout = Layout.TWO_LONGS;
+        } else {
+            layout = Layout.BYTES;
+            bits = bits == 3 ? 4 : bits; // Keep byte-array cells from straddling two bytes
+        }
+        this.bitsPerCell = bits;
+        this.cellMask = (1 << bits) - 1;
+        this.cellsPerLong = Long.SIZE / bits;
+        this.byteCount = layout == Layout.BYTES ? (free * bits + Byte.SIZE - 1) / Byte.SIZE : 0;
+
+        // Torus steps are fixed per board, so move generation looks them up instead of wrapping
+        this.neighbours = new int[cells * SearchAlgorithm.DIRECTIONS.length];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / cols;
+            int col = cell % cols;
+            for (int d = 0; d < SearchAlgorithm.DIRECTIONS.length; d++) {
+                int[] dir = SearchAlgorithm.DIRECTIONS[d];
+                neighbours[cell * 4 + d] = ((row + dir[0] + rows) % rows) * cols + (col + dir[1] + cols) % cols;
+            }
+        }
+        // Fields never straddle two key words (bitsPerCell divides 64 in the BYTES layout)
+        this.fieldLowBits = new long[keyWords()];
+        for (int position = 0; position < free; position++) {
+            fieldLowBits[position / cellsPerLong] |= 1L << ((position % cellsPerLong) * bits);
+        }
+    }
+
+    // Shared codec for the layout; boards packed with the same codec can be compared word by word
+    static StateCodec forLayout(int rows, int cols, boolean[] blocked, int maxCode) {
+        StateCodec codec = new StateCodec(rows, cols, blocked, maxCode);
+        return CANONICAL.computeIfAbsent(codec, key -> key);
+    }
+
+    int freeCellCount() {
+        return freeCells.length;
+    }
+
+    boolean isBlocked(int cell) {
+        return positions[cell] < 0;
+    }
+
+    // Cell a ball on 'cell' lands on when it moves in direction d
+    int neighbour(int cell, int d) {
+        return neighbours[cell * 4 + d];
+    }
+
+    // Number of 64-bit words in a packed key
+    int keyWords() {
+        switch (layout) {
+            case ONE_LONG: return 1;
+            case TWO_LONGS: return 2;
+            default: return (byteCount + 7) / 8;
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StateCodec)) {
+            return false;
+        }
+        StateCodec other = (StateCodec) obj;
+        return rows == other.rows && cols == other.cols && bitsPerCell == other.bitsPerCell
+                && Arrays.equals(positions, other.positions);
+    }
+
+    @Override
+    public int hashCode() {
+        return (rows * 31 + cols) * 31 + bitsPerCell + 961 * Arrays.hashCode(positions);
+    }
+}
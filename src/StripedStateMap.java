@@ -0,0 +1,48 @@
+// Thread-safe packed-state map: a fixed set of PackedStateMap stripes, each behind its own lock,
+// so concurrent inserts only contend when they hash to the same stripe.
+class StripedStateMap {
+    private final PackedStateMap[] stripes;
+    private final int shift;
+
+    public StripedStateMap(int concurrency) {
+        int count = Integer.highestOneBit(Math.max(1, concurrency * 8 - 1)) << 1;
+        stripes = new PackedStateMap[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new PackedStateMap();
+        }
+        shift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+    }
+
+    // Stripe chosen from the high hash bits; each stripe hashes its keys independently
+    private PackedStateMap stripeOf(BoardState state) {
+        return stripes[stripes.length == 1 ? 0 : state.hashCode() >>> shift];
+    }
+
+    public int get(BoardState state) {
+        PackedStateMap stripe = stripeOf(state);
+        synchronized (stripe) {
+            return stripe.get(state);
+        }
+    }
+
+    public boolean contains(BoardState state) {
+        return get(state) != PackedStateMap.MISSING;
+    }
+
+    public boolean putIfLower(BoardState state, int value) {
+        PackedStateMap stripe = stripeOf(state);
+        synchronized (stripe) {
+            return stripe.putIfLower(state, value);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (PackedStateMap stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// Turns a binary trace written by TraceWriter back into the text the "with open" option prints
+// (see ConsoleSearchListener):
+//   java Ex1 --decode-trace <trace file> [output file]
+// Compressed traces are recognised by the gzip signature, whatever their name.
+class TraceDecoder {
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java Ex1 --decode-trace <trace file> [output file]");
+            return;
+        }
+        try (InputStream in = open(Paths.get(args[1]))) {
+            if (args.length == 3) {
+                try (Writer out = Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+                    decode(in, out);
+                }
+            } else {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                decode(in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error decoding trace: " + e.getMessage());
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        in.mark(2);
+        boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return gzip ? new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16) : in;
+    }
+
+    // What the decoder keeps per stream (search thread): its board layout and any open list dump
+    // still waiting for its OPEN_END
+    private static final class Stream {
+        BoardState board;          // Layout of the latest BOARD record, overwritten by every state
+        long[] words = new long[0];
+        StringBuilder openList;    // Text of the dump in progress, or null
+    }
+
+    static void decode(InputStream input, Writer out) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != TraceWriter.MAGIC) {
+            throw new IOException("Not a search trace");
+        }
+        Map<Integer, Stream> streams = new HashMap<>();
+        byte[] block = new byte[0];
+        while (true) {
+            int stream;
+            try {
+                stream = in.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            int length = in.readInt();
+            if (block.length < length) {
+                block = new byte[length];
+            }
+            in.readFully(block, 0, length);
+            decodeBlock(new DataInputStream(new ByteArrayInputStream(block, 0, length)),
+                    streams.computeIfAbsent(stream, id -> new Stream()), out);
+        }
+        // Dumps cut short by the end of the trace
+        for (Stream stream : streams.values()) {
+            if (stream.openList != null) {
+                out.write(stream.openList + System.lineSeparator());
+            }
+        }
+    }
+
+    // One block's records. Open list dumps are written whole once they end, so the dumps of parallel
+    // workers do not interleave, as with one println per callback on the console.
+    private static void decodeBlock(DataInputStream in, Stream stream, Writer out) throws IOException {
+        String newline = System.lineSeparator();
+        while (in.available() > 0) {
+            int type = in.readByte();
+            switch (type) {
+                case TraceWriter.BOARD: {
+                    char[][] cells = new char[in.readShort()][in.readShort()];
+                    for (char[] row : cells) {
+                        for (int col = 0; col < row.length; col++) {
+                            row[col] = (char) in.readUnsignedByte();
+                        }
+                    }
+                    stream.board = new BoardState(cells);
+                    stream.words = new long[stream.board.keyWords()];
+                    break;
+                }
+                case TraceWriter.EXPANDED:
+                case TraceWriter.NODE: {
+                    if (stream.board == null) {
+                        throw new IOException("Board record missing before the first state");
+                    }
+                    int pathCost = in.readInt();
+                    int heuristicCost = in.readInt();
+                    for (int w = 0; w < stream.words.length; w++) {
+                        stream.words[w] = in.readLong();
+                    }
+                    stream.board.setKeyWords(stream.words, 0);
+                    if (type == TraceWriter.EXPANDED) {
+                        out.write(ConsoleSearchListener.expansionText(stream.board, pathCost, heuristicCost) + newline);
+                    } else if (stream.openList != null) {
+                        stream.openList.append('\n')
+                                .append(SearchAlgorithm.describeNode(stream.board, pathCost, heuristicCost));
+                    } else {
+                        throw new IOException("Open list node outside an open list");
+                    }
+                    break;
+                }
+                case TraceWriter.OPEN_LIST:
+                    stream.openList = new StringBuilder(ConsoleSearchListener.openListHeader(readString(in)));
+                    break;
+                case TraceWriter.OPEN_END:
+                    endOpenList(stream, out);
+                    break;
+                case TraceWriter.ITERATION:
+                    in.readInt(); // The bound; the text already holds it
+                    out.write(readString(in) + newline);
+                    break;
+                case TraceWriter.MESSAGE:
+                    out.write(readString(in) + newline);
+                    break;
+                case TraceWriter.DROPPED:
+                    endOpenList(stream, out);
+                    out.write("(" + in.readLong() + " trace records dropped: the trace writer fell behind)" + newline);
+                    break;
+                default:
+                    throw new IOException("Unknown trace record type " + type);
+            }
+        }
+    }
+
+    private static void endOpenList(Stream stream, Writer out) throws IOException {
+        if (stream.openList != null) {
+            out.write(stream.openList + System.lineSeparator());
+            stream.openList = null;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,308 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+// Open list trace in a compact binary file instead of text on standard output (-Dsearch.trace=<file>,
+// gzip-compressed when the name ends in ".gz"). Each search thread appends records (packed board,
+// g, h) to a chunk of its own, so parallel workers never contend; full chunks are queued to a
+// background thread that writes them through NIO and hands them back for reuse. The chunks form a
+// fixed ring: a thread that finds none free drops the rest of its current callback instead of waiting
+// on I/O or growing the heap, and the number of records it dropped goes into the trace before its next
+// record. TraceDecoder turns a trace back into the "with open" text.
+//
+// File format: MAGIC, then blocks of a stream id (int, one per thread), a byte count (int) and that
+// many bytes of whole records. A callback's records (an open list dump) may span several blocks of its
+// stream, with other streams' blocks in between. Each record is a type byte followed by:
+//   BOARD       rows (short), cols (short), one ASCII cell per cell; sets the layout of the stream's
+//               later boards
+//   EXPANDED    g (int), h (int), packed board (BoardState.keyWords() longs)
+//   OPEN_LIST   label (string); the list's NODE records follow, then OPEN_END
+//   NODE        g (int), h (int), packed board
+//   OPEN_END    nothing
+//   ITERATION   bound (int), text (string)
+//   MESSAGE     text (string)
+//   DROPPED     number of records the stream lost since its previous record (long); ends any open
+//               list in progress
+// Strings are an int byte count (-1 for null) followed by UTF-8 bytes.
+class TraceWriter implements SearchListener, AutoCloseable {
+    static final int MAGIC = 0x54524331; // "TRC1"
+    static final byte BOARD = 1;
+    static final byte EXPANDED = 2;
+    static final byte OPEN_LIST = 3;
+    static final byte NODE = 4;
+    static final byte OPEN_END = 5;
+    static final byte ITERATION = 6;
+    static final byte MESSAGE = 7;
+    static final byte DROPPED = 8;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int HEADER = 8;       // Stream id and byte count in front of each chunk
+    private static final int RING_CHUNKS = 64; // Chunks in the ring, i.e. 4 MiB of trace in flight
+    private static final ByteBuffer END = ByteBuffer.allocate(0); // Tells the writer thread to finish
+
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(RING_CHUNKS + 1);
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final Queue<ThreadBuffer> threadBuffers = new ConcurrentLinkedQueue<>(); // For close()
+    private final ThreadLocal<ThreadBuffer> buffers = ThreadLocal.withInitial(this::newThreadBuffer);
+    private final AtomicInteger streams = new AtomicInteger();
+    private final WritableByteChannel channel;
+    private final Thread writer;
+    private volatile IOException failure;  // First write error; later chunks are dropped
+    private volatile boolean closed;
+
+    TraceWriter(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(".gz")) {
+            channel = Channels.newChannel(new GZIPOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file), CHUNK_SIZE), CHUNK_SIZE));
+        } else {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC);
+        magic.flip();
+        while (magic.hasRemaining()) {
+            channel.write(magic);
+        }
+        for (int i = 0; i < RING_CHUNKS; i++) {
+            free.add(ByteBuffer.allocate(CHUNK_SIZE));
+        }
+
+        writer = new Thread(this::drain, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void nodeExpanded(BoardState state, int pathCost, int heuristicCost) {
+        ThreadBuffer buffer = buffers.get();
+        buffer.begin();
+        buffer.putBoard(EXPANDED, state, pathCost, heuristicCost);
+    }
+
+    @Override
+    public void openListChanged(String label, Iterable<? extends SearchAlgorithm.SearchNode> openList) {
+        ThreadBuffer buffer = buffers.get();
+        buffer.begin();
+        buffer.putString(OPEN_LIST, label);
+        for (SearchAlgorithm.SearchNode node : openList) {
+            buffer.putBoard(NODE, node.state, node.pathCost, node.heuristicCost);
+        }
+        ByteBuffer record = buffer.reserve(1);
+        if (record != null) {
+            record.put(OPEN_END);
+        }
+    }
+
+    @Override
+    public void iterationCompleted(int bound, String text) {
+        ThreadBuffer buffer = buffers.get();
+        buffer.begin();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = buffer.reserve(9 + bytes.length);
+        if (record != null) {
+            record.put(ITERATION).putInt(bound).putInt(bytes.length).put(bytes);
+        }
+    }
+
+    @Override
+    public void message(String text) {
+        ThreadBuffer buffer = buffers.get();
+        buffer.begin();
+        buffer.putString(MESSAGE, text);
+    }
+
+    // Queue what every thread has left, wait for the writer thread to finish and close the file. Must
+    // run after the search threads are done. Rethrows the first write error, if any.
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ThreadBuffer buffer : threadBuffers) {
+            buffer.finish();
+        }
+        full.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ThreadBuffer newThreadBuffer() {
+        ThreadBuffer buffer = new ThreadBuffer(streams.getAndIncrement());
+        threadBuffers.add(buffer);
+        return buffer;
+    }
+
+    // One thread's stream: its current chunk, the layout it last wrote and what it has dropped
+    private final class ThreadBuffer {
+        private final int stream;
+        private ByteBuffer chunk;       // null until a free chunk is taken
+        private StateCodec layout;      // Layout of the stream's last BOARD record
+        private long dropped;           // Records lost and not yet reported
+        private boolean dropping;       // The current callback lost a record, so the rest goes too
+
+        ThreadBuffer(int stream) {
+            this.stream = stream;
+        }
+
+        // Start a callback's records, reporting earlier drops first
+        void begin() {
+            if (closed) {
+                throw new IllegalStateException("Trace is closed");
+            }
+            dropping = false;
+            if (dropped > 0) {
+                long lost = dropped;
+                ByteBuffer record = reserve(9);
+                if (record != null) {
+                    record.put(DROPPED).putLong(lost);
+                    dropped = 0;
+                } else {
+                    dropped = lost; // Try again with the next callback
+                }
+            }
+        }
+
+        void putBoard(byte type, BoardState state, int pathCost, int heuristicCost) {
+            if (state.codec != layout) {
+                putLayout(state);
+            }
+            int words = state.keyWords();
+            ByteBuffer record = reserve(9 + words * Long.BYTES);
+            if (record == null) {
+                return;
+            }
+            record.put(type).putInt(pathCost).putInt(heuristicCost);
+            for (int w = 0; w < words; w++) {
+                record.putLong(state.keyWord(w));
+            }
+        }
+
+        // The board's cells as text; the decoder rebuilds the codec from it
+        private void putLayout(BoardState state) {
+            ByteBuffer record = reserve(5 + state.rows * state.cols);
+            if (record == null) {
+                return;
+            }
+            layout = state.codec;
+            record.put(BOARD).putShort((short) state.rows).putShort((short) state.cols);
+            for (int cell = 0; cell < state.rows * state.cols; cell++) {
+                record.put((byte) BoardState.charOf(state.codeAt(cell)));
+            }
+        }
+
+        void putString(byte type, String text) {
+            byte[] bytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = reserve(5 + (bytes == null ? 0 : bytes.length));
+            if (record == null) {
+                return;
+            }
+            record.put(type).putInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null) {
+                record.put(bytes);
+            }
+        }
+
+        // Chunk with room for a record of the given size, queueing the current one if it is full;
+        // null if the record has to be dropped (no free chunk, or larger than a chunk)
+        ByteBuffer reserve(int bytes) {
+            if (!dropping) {
+                if (chunk != null && chunk.remaining() >= bytes) {
+                    return chunk;
+                }
+                queueChunk();
+                if (bytes <= CHUNK_SIZE - HEADER) {
+                    chunk = free.poll();
+                }
+                if (chunk != null) {
+                    chunk.position(HEADER);
+                    return chunk;
+                }
+                dropping = true;
+            }
+            dropped++;
+            return null;
+        }
+
+        private void queueChunk() {
+            if (chunk != null && chunk.position() > HEADER) {
+                chunk.putInt(0, stream).putInt(4, chunk.position() - HEADER);
+                full.add(chunk);
+                chunk = null;
+            }
+        }
+
+        // Report the last drops, waiting for a chunk if need be, and queue what is left
+        void finish() {
+            if (dropped > 0 && (chunk == null || chunk.remaining() < 9)) {
+                queueChunk();
+                while (chunk == null) {
+                    chunk = free.poll();
+                    if (chunk == null) {
+                        Thread.onSpinWait(); // The writer thread is still returning chunks
+                    } else {
+                        chunk.position(HEADER);
+                    }
+                }
+            }
+            if (dropped > 0) {
+                chunk.put(DROPPED).putLong(dropped);
+                dropped = 0;
+            }
+            queueChunk();
+        }
+    }
+
+    // Writer thread: write chunks in order and recycle them, until END
+    private void drain() {
+        while (true) {
+            ByteBuffer buffer;
+            try {
+                buffer = full.take();
+            } catch (InterruptedException e) {
+                continue; // Only close() ends the writer, so nothing queued is lost
+            }
+            if (buffer == END) {
+                return;
+            }
+            buffer.flip();
+            if (failure == null) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            buffer.clear();
+            free.add(buffer);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+// Fixed-size transposition table for the depth-first engines: packed state -> best g seen, the
+// f bound its subtree returned, and the iteration (stamp) it was stored in. Memory is allocated once,
+// from a megabyte budget. Each bucket has two entries: a depth-preferred one that keeps the entry with
+// the most search effort behind it (its draft), and an always-replace one for recent states.
+class TranspositionTable {
+    static final int MISSING = -1; // Returned by find() for absent states
+
+    private static final int FIELDS = 4; // g, bound, stamp, draft
+    private static final int G = 0;
+    private static final int BOUND = 1;
+    private static final int STAMP = 2;
+    private static final int DRAFT = 3;
+    private static final int EMPTY = Integer.MIN_VALUE; // g of an unused entry
+
+    private final int stride;      // Key words per entry
+    private final long[] keys;
+    private final int[] data;      // FIELDS ints per entry
+    private final int bucketMask;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // Table for boards with the given packed key width, as large as fits in the budget
+    TranspositionTable(int megabytes, int keyWords) {
+        this.stride = keyWords;
+        long entryBytes = 8L * keyWords + 4L * FIELDS;
+        long budget = (long) megabytes << 20;
+        long buckets = Long.highestOneBit(Math.max(1, budget / (2 * entryBytes)));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / (2 * Math.max(FIELDS, keyWords))));
+        this.bucketMask = (int) buckets - 1;
+        this.keys = new long[(int) buckets * 2 * stride];
+        this.data = new int[(int) buckets * 2 * FIELDS];
+        for (int entry = 0; entry < buckets * 2; entry++) {
+            data[entry * FIELDS + G] = EMPTY;
+        }
+    }
+
+    // Table sized by -Dsearch.tt.mb, or null when transposition tables are disabled
+    static TranspositionTable forState(BoardState state) {
+        int megabytes = SearchConfig.transpositionTableMegabytes();
+        return megabytes > 0 ? new TranspositionTable(megabytes, state.keyWords()) : null;
+    }
+
+    // Entry holding the state, or MISSING
+    int find(BoardState state) {
+        int entry = (hash(state) & bucketMask) << 1;
+        if (matches(entry, state) || matches(++entry, state)) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        return MISSING;
+    }
+
+    int g(int entry) {
+        return data[entry * FIELDS + G];
+    }
+
+    int bound(int entry) {
+        return data[entry * FIELDS + BOUND];
+    }
+
+    int stamp(int entry) {
+        return data[entry * FIELDS + STAMP];
+    }
+
+    // Record a searched state. draft measures the work its subtree represents (e.g. the remaining
+    // cost budget); entries from an older stamp are always replaceable.
+    void store(BoardState state, int g, int bound, int draft, int stamp) {
+        int preferred = (hash(state) & bucketMask) << 1;
+        int recent = preferred + 1;
+        int entry;
+        if (matches(preferred, state)) {
+            entry = preferred;
+        } else if (matches(recent, state)) {
+            entry = recent;
+        } else if (g(preferred) == EMPTY || stamp(preferred) != stamp || draft >= data[preferred * FIELDS + DRAFT]) {
+            // Demote the preferred entry into the always-replace slot
+            if (g(preferred) != EMPTY) {
+                if (g(recent) != EMPTY) {
+                    evictions++;
+                }
+                System.arraycopy(keys, preferred * stride, keys, recent * stride, stride);
+                System.arraycopy(data, preferred * FIELDS, data, recent * FIELDS, FIELDS);
+            }
+            entry = preferred;
+        } else {
+            if (g(recent) != EMPTY) {
+                evictions++;
+            }
+            entry = recent;
+        }
+
+        int base = entry * stride;
+        for (int w = 0; w < stride; w++) {
+            keys[base + w] = state.keyWord(w);
+        }
+        int fields = entry * FIELDS;
+        data[fields + G] = g;
+        data[fields + BOUND] = bound;
+        data[fields + STAMP] = stamp;
+        data[fields + DRAFT] = draft;
+    }
+
+    long hits() {
+        return hits;
+    }
+
+    long misses() {
+        return misses;
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return "Transposition table: " + (data.length / FIELDS) + " entries, " + hits + " hits, "
+                + misses + " misses, " + evictions + " evictions";
+    }
+
+    private boolean matches(int entry, BoardState state) {
+        if (data[entry * FIELDS + G] == EMPTY) {
+            return false;
+        }
+        int base = entry * stride;
+        for (int w = 0; w < stride; w++) {
+            if (keys[base + w] != state.keyWord(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(BoardState state) {
+        long h = 0;
+        for (int w = 0; w < stride; w++) {
+            h = (h ^ state.keyWord(w)) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 29));
+    }
+}
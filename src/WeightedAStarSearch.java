@@ -0,0 +1,127 @@
+import java.util.List;
+
+// Anytime weighted A* (Hansen & Zhou 2007). Nodes are ordered by g + w * h with w = -Dsearch.epsilon,
+// so the first solution comes quickly and costs at most w times the optimum. The search then keeps
+// expanding for -Dsearch.anytime.ms, pruning every node whose unweighted f cannot beat the incumbent,
+// and reports each cheaper solution. The bound proven at each step is the smaller of w and the
+// incumbent's cost over the lowest f left in the open list; an exhausted open list proves the
+// incumbent optimal.
+class WeightedAStarSearch extends AStarSearch {
+    protected final double epsilon;
+    protected final long timeBudgetMillis;
+    protected double weight;            // Weight of h in the current ordering
+    protected long startTime;
+    protected SearchNode incumbent;     // Cheapest goal node found so far, or null
+
+    public WeightedAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList) {
+        this(initialState, goalState, printTime, printOpenList, SearchConfig.epsilon(), SearchConfig.anytimeMillis());
+    }
+
+    public WeightedAStarSearch(BoardState initialState, BoardState goalState, boolean printTime, boolean printOpenList,
+                               double epsilon, long timeBudgetMillis) {
+        super(initialState, goalState, printTime, printOpenList);
+        this.epsilon = Math.max(1.0, epsilon);
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    @Override
+    protected SearchResult runSearch() {
+        startTime = System.currentTimeMillis();
+        weight = epsilon;
+        incumbent = null;
+        OpenList<SearchNode> openList = createOpenList();
+        PackedStateMap bestCosts = new PackedStateMap();
+
+        SearchNode startNode = new SearchNode(initialState, null, 0, NO_MOVE);
+        openList.add(startNode, priority(startNode), 0);
+        bestCosts.putIfLower(initialState, 0);
+
+        while (!openList.isEmpty() && !(incumbent != null && outOfTime())) {
+            SearchNode currentNode = openList.poll();
+            if (currentNode.pathCost > bestCosts.get(currentNode.state) || !canImprove(currentNode)) {
+                continue;
+            }
+            if (currentNode.state.isGoalState(goalState)) {
+                incumbent = currentNode;
+                reportSolution();
+                reportBound(provenBound(weight, openList));
+                continue;
+            }
+
+            List<SearchNode> successors = generateSuccessors(currentNode);
+            for (SearchNode successor : successors) {
+                if (!canImprove(successor) || !bestCosts.putIfLower(successor.state, successor.pathCost)) {
+                    metrics.duplicatesPruned++;
+                    continue;
+                }
+                openList.add(successor, priority(successor), successor.pathCost);
+            }
+            metrics.openSize(openList.size());
+
+            if (listener != null) {
+                listener.openListChanged(null, openList);
+            }
+        }
+
+        if (incumbent == null) {
+            return result(bestCosts.size(), Double.NaN);
+        }
+        double bound = provenBound(weight, openList);
+        reportBound(bound);
+        return result(bestCosts.size(), bound);
+    }
+
+    @Override
+    protected int priority(SearchNode node) {
+        return node.pathCost + (int) (weight * node.heuristicCost);
+    }
+
+    // Whether a path through the node could still be cheaper than the incumbent
+    protected boolean canImprove(SearchNode node) {
+        return incumbent == null || node.getTotalCost() < incumbent.pathCost;
+    }
+
+    protected boolean outOfTime() {
+        return System.currentTimeMillis() - startTime >= timeBudgetMillis;
+    }
+
+    // Proven suboptimality of the incumbent: at most the weight it was found under, and its cost over
+    // the lowest f still open, since no solution costs less than that. Nothing open proves it optimal.
+    @SafeVarargs
+    protected final double provenBound(double weightBound, Iterable<SearchNode>... open) {
+        int lowest = incumbent.pathCost;
+        for (Iterable<SearchNode> nodes : open) {
+            for (SearchNode node : nodes) {
+                lowest = Math.min(lowest, node.getTotalCost());
+            }
+        }
+        double bound = lowest == 0 ? 1 : (double) incumbent.pathCost / lowest;
+        return Math.min(weightBound, bound);
+    }
+
+    protected void reportSolution() {
+        if (listener != null) {
+            listener.solutionImproved(reconstructPath(incumbent), incumbent.pathCost, elapsedSeconds());
+        }
+    }
+
+    protected void reportBound(double bound) {
+        if (listener != null) {
+            listener.boundImproved(incumbent.pathCost, bound, elapsedSeconds());
+        }
+    }
+
+    protected SearchResult result(int nodesCreated, double bound) {
+        if (incumbent == null) {
+            return new SearchResult("No Path", nodesCreated, Integer.MAX_VALUE, elapsedSeconds());
+        }
+        SearchResult result = new SearchResult(reconstructPath(incumbent), nodesCreated, incumbent.pathCost,
+                elapsedSeconds());
+        result.suboptimalityBound = bound;
+        return result;
+    }
+
+    private double elapsedSeconds() {
+        return (System.currentTimeMillis() - startTime) / 1000.0;
+    }
+}